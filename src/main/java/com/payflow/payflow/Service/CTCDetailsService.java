@@ -20,6 +20,7 @@ import java.util.Optional;
 /**
  * Service class for managing CTC (Cost to Company) details for employees.
  * It provides methods to add, update, and retrieve CTC records.
+ * Every change invalidates the employee's entry in the {@link CtcTimelineCache}.
  */
 @Service
 public class CTCDetailsService {
@@ -30,6 +31,9 @@ public class CTCDetailsService {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private CtcTimelineCache ctcTimelineCache;
+
     /**
      * Helper method to safely parse BigDecimal from payload.
      * Handles nulls and ensures correct type conversion.
@@ -141,6 +145,7 @@ public class CTCDetailsService {
 
             newCtcDetails.setCreatedAt(Timestamp.valueOf(LocalDateTime.now()));
             CTCDetails savedCtc = ctcDetailsRepository.save(newCtcDetails);
+            ctcTimelineCache.invalidate(employeeId);
 
             response.put("success", true);
             response.put("message", "CTC details added successfully");
@@ -243,6 +248,7 @@ public class CTCDetailsService {
                 }
                 
                 CTCDetails updatedCtc = ctcDetailsRepository.save(ctcDetails);
+                ctcTimelineCache.invalidate(updatedCtc.getEmployeeId());
                 
                 response.put("success", true);
                 response.put("message", "CTC details updated successfully");
@@ -266,8 +272,10 @@ public class CTCDetailsService {
     public Map<String, Object> deleteCTCDetails(Long ctcId) {
         Map<String, Object> response = new HashMap<>();
         try {
-            if (ctcDetailsRepository.existsById(ctcId)) {
+            Optional<CTCDetails> ctcDetailsOpt = ctcDetailsRepository.findById(ctcId);
+            if (ctcDetailsOpt.isPresent()) {
                 ctcDetailsRepository.deleteById(ctcId);
+                ctcTimelineCache.invalidate(ctcDetailsOpt.get().getEmployeeId());
                 response.put("success", true);
                 response.put("message", "CTC record deleted successfully");
             } else {
@@ -0,0 +1,173 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.model.CTCDetails;
+import com.payflow.payflow.repository.CTCDetailsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of each employee's CTC timeline, for resolving the CTC record in force at a point in time.
+ * An employee's records are loaded once into arrays sorted by effective-from date, and lookups are
+ * a binary search over those arrays instead of a query per payslip or download.
+ *
+ * {@link CTCDetailsService} invalidates an employee's timeline whenever it adds, updates or deletes
+ * one of their records. Entries also expire after {@code payflow.ctc-cache.ttl-seconds}, so changes
+ * made through another node are picked up. The cached {@link CTCDetails} objects are shared between
+ * callers and must not be modified.
+ */
+@Service
+public class CtcTimelineCache {
+
+    @Autowired
+    private CTCDetailsRepository ctcDetailsRepository;
+
+    /**
+     * How long a loaded timeline is used before it is read from the database again.
+     */
+    @Value("${payflow.ctc-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<Long, Timeline> timelines = new ConcurrentHashMap<>();
+
+    // Incremented by every invalidation; a load that overlapped one is not cached, as it may have read stale rows
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Find the CTC record in force for a month: of the records effective for any part of the month,
+     * the one with the latest effective-from date.
+     *
+     * @param employeeId The ID of the employee.
+     * @param month The month.
+     * @return An Optional containing the CTC record, or empty if none is effective during the month.
+     */
+    public Optional<CTCDetails> findInForce(Long employeeId, YearMonth month) {
+        return Optional.ofNullable(timeline(employeeId).inForce(month.atDay(1), month.atEndOfMonth()));
+    }
+
+    /**
+     * Find the most recent CTC record that became effective before a date.
+     *
+     * @param employeeId The ID of the employee.
+     * @param date The date; only records effective from strictly before it are considered.
+     * @return An Optional containing the CTC record, or empty if there is none.
+     */
+    public Optional<CTCDetails> findLatestEffectiveBefore(Long employeeId, LocalDate date) {
+        return Optional.ofNullable(timeline(employeeId).latestBefore(date));
+    }
+
+    /**
+     * Drop an employee's cached timeline, so the next lookup reads it from the database.
+     * Call after the employee's CTC records have been changed and the change is committed.
+     *
+     * @param employeeId The ID of the employee.
+     */
+    public void invalidate(Long employeeId) {
+        invalidations.incrementAndGet();
+        if (employeeId != null) {
+            timelines.remove(employeeId);
+        }
+    }
+
+    /**
+     * Drop every cached timeline.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        timelines.clear();
+    }
+
+    private Timeline timeline(Long employeeId) {
+        Timeline cached = timelines.get(employeeId);
+        if (cached != null && System.nanoTime() < cached.expiresAt) {
+            return cached;
+        }
+        long invalidationsBefore = invalidations.get();
+        Timeline loaded = new Timeline(ctcDetailsRepository.findByEmployeeIdOrderByEffectiveFromDesc(employeeId),
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds));
+        if (invalidations.get() == invalidationsBefore) {
+            timelines.put(employeeId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * An employee's CTC records sorted by effective-from date, with the dates as epoch days.
+     */
+    private static final class Timeline {
+
+        private final CTCDetails[] records;
+        private final long[] fromDays;
+        private final long[] toDays; // Long.MAX_VALUE for an open-ended record
+        private final long expiresAt;
+
+        private Timeline(List<CTCDetails> records, long expiresAt) {
+            List<CTCDetails> sorted = new ArrayList<>(records.size());
+            for (CTCDetails record : records) {
+                if (record.getEffectiveFrom() != null) {
+                    sorted.add(record);
+                }
+            }
+            sorted.sort(Comparator.comparing(CTCDetails::getEffectiveFrom));
+            this.records = sorted.toArray(new CTCDetails[0]);
+            this.fromDays = new long[this.records.length];
+            this.toDays = new long[this.records.length];
+            for (int i = 0; i < this.records.length; i++) {
+                fromDays[i] = this.records[i].getEffectiveFrom().toEpochDay();
+                LocalDate effectiveTo = this.records[i].getEffectiveTo();
+                toDays[i] = effectiveTo != null ? effectiveTo.toEpochDay() : Long.MAX_VALUE;
+            }
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Returns the record with the latest effective-from date among those overlapping [start, end].
+         */
+        private CTCDetails inForce(LocalDate start, LocalDate end) {
+            long startDay = start.toEpochDay();
+            // Records effective from after the end of the range cannot overlap it; later ones win, so walk back
+            for (int i = lastFromAtOrBefore(end.toEpochDay()); i >= 0; i--) {
+                if (toDays[i] >= startDay) {
+                    return records[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns the record with the latest effective-from date strictly before the date.
+         */
+        private CTCDetails latestBefore(LocalDate date) {
+            int i = lastFromAtOrBefore(date.toEpochDay() - 1);
+            return i >= 0 ? records[i] : null;
+        }
+
+        /**
+         * Returns the index of the last record effective from on or before the day, or -1 if there is none.
+         */
+        private int lastFromAtOrBefore(long day) {
+            int low = 0;
+            int high = fromDays.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (fromDays[mid] <= day) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+    }
+}
@@ -3,44 +3,56 @@ package com.payflow.payflow.Service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * Service class for sending notification emails.
+ * Messages are handed to the {@link MailPipeline} and sent in the background, so callers never
+ * wait for the mail server.
+ */
 @Service
 public class EmailService {
 
+    private static final Logger logger = Logger.getLogger(EmailService.class.getName());
+
     @Autowired
-    private JavaMailSender mailSender;
+    private MailPipeline mailPipeline;
 
     @Value("${spring.mail.username}")
     private String fromEmail;
 
-    public void sendSimpleMessage(String to, String subject, String text) {
-        try {
-            // Debug logging
-            System.out.println("📧 Attempting to send email:");
-            System.out.println("   From: " + fromEmail);
-            System.out.println("   To: " + to);
-            System.out.println("   Subject: " + subject);
-            System.out.println("   Content: " + text.substring(0, Math.min(100, text.length())) + "...");
-
-            if (to == null || to.trim().isEmpty()) {
-                System.err.println("❌ Cannot send email: recipient email is null or empty");
-                return;
-            }
-
-            // ACTUAL EMAIL SENDING
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            mailSender.send(message);
-            System.out.println("✅ Email sent successfully to: " + to);
-        } catch (Exception e) {
-            System.err.println("❌ Failed to send email to: " + to);
-            System.err.println("   Reason: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     * Queues a plain-text email for sending.
+     *
+     * @param to The recipient's email address.
+     * @param subject The subject line.
+     * @param text The message body.
+     * @return A future completed when the message has been delivered, or completed exceptionally if
+     *         the recipient is missing, the queue is full or every attempt failed.
+     */
+    public CompletableFuture<Void> sendSimpleMessage(String to, String subject, String text) {
+        if (to == null || to.trim().isEmpty()) {
+            logger.warning("Cannot send email \"" + subject + "\": recipient email is null or empty");
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Recipient email is null or empty"));
         }
+
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(text);
+
+        CompletableFuture<Void> delivery = mailPipeline.submit(message);
+        delivery.whenComplete((ignored, error) -> {
+            if (error != null) {
+                logger.warning("Failed to send email to " + to + ": " + error.getMessage());
+            } else {
+                logger.fine("Email sent to " + to);
+            }
+        });
+        return delivery;
     }
 }
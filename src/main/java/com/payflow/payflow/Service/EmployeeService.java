@@ -2,8 +2,13 @@ package com.payflow.payflow.Service;
 
 import com.payflow.payflow.model.Employee;
 import com.payflow.payflow.repository.EmployeeRepository;
+import com.payflow.payflow.repository.KeysetQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.fasterxml.jackson.databind.ObjectMapper; // Added import for ObjectMapper
 
 import java.time.LocalDate;
@@ -19,21 +24,77 @@ public class EmployeeService {
     @Autowired
     private CTCDetailsService ctcDetailsService;
 
+    @Autowired
+    private ReportingHierarchy reportingHierarchy;
+
+    @Autowired
+    private OrgHierarchyService orgHierarchyService;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Employee attributes a list view may request. The password is never exposed.
+     */
+    public static final List<String> PAGE_FIELDS = List.of(
+            "id", "name", "email", "phone", "address", "position", "startDate", "status", "role",
+            "managerId", "username", "age", "leaves", "leaveBalance", "totalExperience", "pastExperience",
+            "pfNumber", "monthlySalary", "salaryDeductionDays", "firstLogin", "education", "experiences");
+
+    /**
+     * Employee attributes returned when a list view does not ask for specific fields.
+     * The LONGTEXT education and experiences columns are only read when requested.
+     */
+    public static final List<String> DEFAULT_PAGE_FIELDS = List.of(
+            "id", "name", "email", "position", "status", "role", "managerId");
+
     // Initialize ObjectMapper once
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+        // The full list is returned to clients with the profile fields, so fetch them in the same query
+        return employeeRepository.findAllWithProfile();
+    }
+
+    /**
+     * Get one page of employees in ID order, selecting only the requested columns.
+     *
+     * @param afterId The cursor returned with the previous page, or null for the first page.
+     * @param limit The page size; clamped to {@link KeysetQuery#MAX_LIMIT}.
+     * @param status Only employees with this status (e.g., "ACTIVE"), or null for all.
+     * @param role Only employees with this role (e.g., "MANAGER"), or null for all.
+     * @param managerId Only employees reporting to this manager, or null for all.
+     * @param fields Comma-separated attributes to return (see {@link #PAGE_FIELDS}), or null for {@link #DEFAULT_PAGE_FIELDS}.
+     * @return The page of employees as attribute maps, with the cursor of the next page.
+     * @throws IllegalArgumentException if a requested field is unknown or restricted.
+     */
+    public KeysetQuery.Page getEmployeePage(Long afterId, Integer limit, String status, String role,
+                                            Long managerId, String fields) {
+        // status and role are compared with the column collation, which is case-insensitive in MySQL
+        return KeysetQuery.from(entityManager, Employee.class)
+                .select(KeysetQuery.parseFields(fields, PAGE_FIELDS, DEFAULT_PAGE_FIELDS))
+                .whereEquals("status", status)
+                .whereEquals("role", role)
+                .whereEquals("managerId", managerId)
+                .after(afterId)
+                .fetch(KeysetQuery.limit(limit));
     }
 
     public Employee createEmployeeWithOnboarding(Map<String, Object> payload) throws Exception {
         try {
-            // Log the full payload for debugging
-            System.out.println("Received payload for employee creation: " + payload);
             System.out.println("Payload keys: " + payload.keySet());
             
             // Log each field value for debugging
             for (Map.Entry<String, Object> entry : payload.entrySet()) {
+                if ("password".equals(entry.getKey())) {
+                    continue; // Never log the password
+                }
                 System.out.println("Field: " + entry.getKey() + " = " + entry.getValue() + " (Type: " + (entry.getValue() != null ? entry.getValue().getClass().getSimpleName() : "null") + ")");
             }
 
@@ -134,10 +195,10 @@ public class EmployeeService {
                 newEmployee.setStatus("ACTIVE"); // Default status
             }
 
-            if (payload.containsKey("password")) {
-                newEmployee.setPassword((String) payload.get("password"));
+            if (payload.get("password") != null) {
+                newEmployee.setPassword(passwordHasher.hash((String) payload.get("password")));
             } else {
-                newEmployee.setPassword("1234"); // Default password from schema
+                newEmployee.setPassword(passwordHasher.hash("1234")); // Default password from schema
             }
 
             if (payload.containsKey("firstLogin")) {
@@ -254,7 +315,6 @@ public class EmployeeService {
             System.out.println("  StartDate: " + newEmployee.getStartDate());
             System.out.println("  Leaves: " + newEmployee.getLeaves());
             System.out.println("  Status: " + newEmployee.getStatus());
-            System.out.println("  Password: " + newEmployee.getPassword());
             System.out.println("  FirstLogin: " + newEmployee.getFirstLogin());
             System.out.println("  Education: " + newEmployee.getEducation());
             System.out.println("  Experiences: " + newEmployee.getExperiences());
@@ -270,8 +330,15 @@ public class EmployeeService {
             System.out.println("  MonthlySalary: " + newEmployee.getMonthlySalary());
             // --- End Debugging Log ---
 
-            // Save the employee first to get an ID
-            Employee savedEmployee = employeeRepository.save(newEmployee);
+            // Save the employee first to get an ID; the employee and their org closure rows commit together
+            Employee savedEmployee = new TransactionTemplate(transactionManager).execute(status -> {
+                Employee saved = employeeRepository.save(newEmployee);
+                orgHierarchyService.addEmployee(saved.getId(), saved.getManagerId());
+                return saved;
+            });
+            if (savedEmployee.getManagerId() != null) {
+                reportingHierarchy.invalidate();
+            }
             System.out.println("Employee created successfully: " + savedEmployee.getName() + " (ID: " + savedEmployee.getId() + ")");
             
             // --- CTC Details Handling ---
@@ -346,10 +413,6 @@ public class EmployeeService {
         }
     }
 
-    public Employee findByEmailAndPassword(String email, String password) {
-        return employeeRepository.findByEmailAndPassword(email, password).orElse(null);
-    }
-
     public List<Employee> getEmployeesByManager(Long managerId) {
         return employeeRepository.findByManagerId(managerId);
     }
@@ -364,9 +427,19 @@ public class EmployeeService {
             throw new Exception("Employee not found");
         }
 
+        if (managerId != null && !employeeRepository.existsById(managerId)) {
+            throw new Exception("Manager not found");
+        }
+
+        // The manager link and the org closure move together; the cached hierarchy is dropped once both are committed
         Employee employee = employeeOpt.get();
-        employee.setManagerId(managerId);
-        return employeeRepository.save(employee);
+        Employee saved = new TransactionTemplate(transactionManager).execute(status -> {
+            orgHierarchyService.moveEmployee(employeeId, managerId);
+            employee.setManagerId(managerId);
+            return employeeRepository.save(employee);
+        });
+        reportingHierarchy.invalidate();
+        return saved;
     }
     
     /**
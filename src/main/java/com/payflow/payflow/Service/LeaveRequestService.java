@@ -2,15 +2,25 @@ package com.payflow.payflow.Service;
 
 import com.payflow.payflow.Entity.LeaveRequest;
 import com.payflow.payflow.model.Employee;
+import com.payflow.payflow.model.EmployeeSummary;
 import com.payflow.payflow.repository.EmployeeRepository;
+import com.payflow.payflow.repository.KeysetQuery;
 import com.payflow.payflow.repository.LeaveRequestRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -23,28 +33,57 @@ public class LeaveRequestService {
     private EmployeeRepository employeeRepository;
 
     @Autowired
-    private EmailService emailService;
+    private NotificationOutboxService notificationOutboxService;
 
+    @Autowired
+    private LeaveUsageService leaveUsageService;
+
+    @Autowired
+    private WorkingDayCalendar workingDayCalendar;
+
+    @Autowired
+    private ReportingHierarchy reportingHierarchy;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Leave request attributes a list view may request.
+     */
+    public static final List<String> PAGE_FIELDS = List.of(
+            "id", "employeeId", "employeeEmail", "startDate", "endDate", "reason", "status", "days", "salaryDeducted");
+
+    /**
+     * Leave request attributes returned when a list view does not ask for specific fields.
+     */
+    public static final List<String> DEFAULT_PAGE_FIELDS = List.of(
+            "id", "employeeId", "startDate", "endDate", "days", "status");
+
+    // The manager's notification is written to the outbox in the same transaction as the request
+    @Transactional
     public LeaveRequest submitLeaveRequest(LeaveRequest request) {
         request.setStatus("PENDING");
 
-        // Calculate days between start and end date
-        int days = calculateDuration(request.getStartDate(), request.getEndDate());
+        // Count the working days between start and end date; weekends and holidays are not leave
+        int days = workingDayCalendar.countWorkingDays(request.getStartDate(), request.getEndDate());
         request.setDays(days);
 
-        // If email missing, fetch from employee table
-        if (request.getEmployeeId() != null &&
-                (request.getEmployeeEmail() == null || request.getEmployeeEmail().trim().isEmpty())) {
-            employeeRepository.findById(request.getEmployeeId())
-                    .ifPresent(emp -> request.setEmployeeEmail(emp.getEmail()));
+        // Only the summary columns are needed, for the email fallback and the manager's notification
+        Optional<EmployeeSummary> employeeOpt = request.getEmployeeId() != null
+                ? employeeRepository.findSummaryById(request.getEmployeeId()) : Optional.empty();
+
+        // If email missing, take it from the employee
+        if (request.getEmployeeEmail() == null || request.getEmployeeEmail().trim().isEmpty()) {
+            employeeOpt.ifPresent(emp -> request.setEmployeeEmail(emp.getEmail()));
         }
 
         LeaveRequest submittedRequest = repository.save(request);
 
-        // Notify manager
-        employeeRepository.findById(submittedRequest.getEmployeeId()).ifPresent(employee -> {
-            if (employee.getManagerId() != null) {
-                employeeRepository.findById(employee.getManagerId()).ifPresent(manager -> {
+        // Notify manager, found through the cached reporting hierarchy
+        employeeOpt.ifPresent(employee -> {
+            Optional<Long> managerId = reportingHierarchy.getManagerId(employee.getId());
+            if (managerId.isPresent()) {
+                employeeRepository.findSummaryById(managerId.get()).ifPresent(manager -> {
                     String subject = "New Leave Request from " + employee.getName();
                     String body = String.format(
                             "Dear %s,\n\nA new leave request has been submitted by %s from %s to %s.\n\nPlease review and take action.\n\nRegards,\nPayFlow HR System",
@@ -53,7 +92,8 @@ public class LeaveRequestService {
                             formatDate(submittedRequest.getStartDate()),
                             formatDate(submittedRequest.getEndDate())
                     );
-                    emailService.sendSimpleMessage(manager.getEmail(), subject, body);
+                    notificationOutboxService.enqueueEmail(manager.getEmail(), subject, body,
+                            "LEAVE_REQUEST", submittedRequest.getId());
                 });
             }
         });
@@ -69,26 +109,88 @@ public class LeaveRequestService {
         return repository.findAll();
     }
 
+    /**
+     * Get one page of leave requests in ID order, selecting only the requested columns.
+     *
+     * @param afterId The cursor returned with the previous page, or null for the first page.
+     * @param limit The page size; clamped to {@link KeysetQuery#MAX_LIMIT}.
+     * @param status Only requests with this status (e.g., "PENDING"), or null for all.
+     * @param employeeId Only requests of this employee, or null for all.
+     * @param managerId Only requests of employees reporting to this manager, or null for all.
+     * @param fields Comma-separated attributes to return (see {@link #PAGE_FIELDS}), or null for {@link #DEFAULT_PAGE_FIELDS}.
+     * @return The page of leave requests as attribute maps, with the cursor of the next page.
+     * @throws IllegalArgumentException if a requested field is unknown.
+     */
+    public KeysetQuery.Page getLeavePage(Long afterId, Integer limit, String status, Long employeeId,
+                                         Long managerId, String fields) {
+        KeysetQuery<LeaveRequest> query = KeysetQuery.from(entityManager, LeaveRequest.class)
+                .select(KeysetQuery.parseFields(fields, PAGE_FIELDS, DEFAULT_PAGE_FIELDS))
+                .whereEquals("status", status)
+                .whereEquals("employeeId", employeeId)
+                .after(afterId);
+        if (managerId != null) {
+            // Resolve the team inside the same query instead of loading it first
+            query.where((cb, criteria, root) -> {
+                Subquery<Long> team = criteria.subquery(Long.class);
+                Root<Employee> employee = team.from(Employee.class);
+                team.select(employee.<Long>get("id")).where(cb.equal(employee.get("managerId"), managerId));
+                return root.get("employeeId").in(team);
+            });
+        }
+        return query.fetch(KeysetQuery.limit(limit));
+    }
+
     public List<LeaveRequest> getLeaveRequestsByManager(Long managerId) {
-        List<Employee> managedEmployees = employeeRepository.findByManagerId(managerId);
-        List<Long> employeeIds = new ArrayList<>();
-        managedEmployees.forEach(emp -> employeeIds.add(emp.getId()));
+        List<Long> employeeIds = reportingHierarchy.getReportIds(managerId);
 
         if (employeeIds.isEmpty()) return new ArrayList<>();
         return repository.findByEmployeeIdIn(employeeIds);
     }
 
+    /**
+     * Get one page of the leave requests of a manager's direct reports, in ID order, with a single join query.
+     *
+     * @param managerId The ID of the manager.
+     * @param afterId The cursor returned with the previous page, or null for the first page.
+     * @param limit The page size; clamped to {@link KeysetQuery#MAX_LIMIT}.
+     * @param status Only requests with this status (e.g., "PENDING"), or null for all.
+     * @param from Only requests ending on or after this date, or null.
+     * @param to Only requests starting on or before this date, or null.
+     * @return A Map with "success", "data" (the leave requests), "nextCursor" and "hasMore".
+     */
+    public Map<String, Object> getTeamLeavePage(Long managerId, Long afterId, Integer limit, String status,
+                                                LocalDate from, LocalDate to) {
+        int pageSize = KeysetQuery.limit(limit);
+        // Read one row more than requested to know whether there is a next page
+        List<LeaveRequest> rows = repository.findTeamLeaves(managerId, status, from, to,
+                afterId != null ? afterId : 0L, Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<LeaveRequest> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", page);
+        response.put("nextCursor", hasMore ? page.get(page.size() - 1).getId() : null);
+        response.put("hasMore", hasMore);
+        return response;
+    }
+
+    // The employee's notification and the leave usage aggregate are written in the same transaction as the status change
+    @Transactional
     public LeaveRequest updateLeaveStatus(Long id, String status) {
-        LeaveRequest request = repository.findById(id)
+        LeaveRequest request = repository.findByIdForUpdate(id)
                 .orElseThrow(() -> new IllegalArgumentException("Leave request not found: " + id));
 
+        String previousStatus = request.getStatus();
         request.setStatus(status);
         LeaveRequest updatedRequest = repository.save(request);
+        leaveUsageService.recordStatusChange(updatedRequest, previousStatus);
 
         employeeRepository.findById(updatedRequest.getEmployeeId()).ifPresent(employee -> {
             String subject = "Your Leave Request Status Has Been Updated";
             String body = buildStatusEmailBody(updatedRequest, employee, status);
-            emailService.sendSimpleMessage(employee.getEmail(), subject, body);
+            notificationOutboxService.enqueueEmail(employee.getEmail(), subject, body,
+                    "LEAVE_REQUEST", updatedRequest.getId());
         });
 
         return updatedRequest;
@@ -99,10 +201,6 @@ public class LeaveRequestService {
         return date.format(DateTimeFormatter.ofPattern("EEEE, MMMM dd, yyyy"));
     }
 
-    private int calculateDuration(LocalDate startDate, LocalDate endDate) {
-        return (int) (endDate.toEpochDay() - startDate.toEpochDay()) + 1;
-    }
-
     private String buildStatusEmailBody(LeaveRequest request, Employee employee, String status) {
         StringBuilder body = new StringBuilder();
         body.append("Hello ").append(employee.getName()).append(",\n\n")
@@ -111,7 +209,7 @@ public class LeaveRequestService {
                 .append("🗓️  **Leave Details**\n")
                 .append("• Request ID: ").append(request.getId()).append("\n")
                 .append("• Dates: ").append(formatDate(request.getStartDate())).append(" to ").append(formatDate(request.getEndDate())).append("\n")
-                .append("• Duration: ").append(request.getDays()).append(" day(s)\n")
+                .append("• Duration: ").append(request.getDays()).append(" working day(s)\n")
                 .append("• Reason: ").append(request.getReason()).append("\n")
                 .append("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n\n");
 
@@ -0,0 +1,252 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.Entity.LeaveRequest;
+import com.payflow.payflow.model.PayPeriod;
+import com.payflow.payflow.repository.LeaveRequestRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service class for the leave usage aggregate: the approved leave days of each employee per month,
+ * kept in the {@code leave_usage} table.
+ * The aggregate is updated incrementally in the transaction that approves a leave request (or
+ * rejects one that was approved), so payroll reads approved days with one query for the whole run
+ * instead of rescanning {@code leave_request} for every employee.
+ * A leave is split across the months it spans, counting only the working days of each month
+ * in the {@link WorkingDayCalendar}. After the holiday calendar changes, {@link #rebuild()}
+ * recomputes the aggregate from the approved leave requests.
+ */
+@Service
+public class LeaveUsageService {
+
+    private static final Logger logger = Logger.getLogger(LeaveUsageService.class.getName());
+
+    /**
+     * Leave request status whose days count as used.
+     */
+    public static final String STATUS_APPROVED = "APPROVED";
+
+    private static final String ADD_DAYS_SQL =
+            "INSERT INTO leave_usage (employee_id, period, approved_days) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE approved_days = approved_days + ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO leave_usage (employee_id, period, approved_days) VALUES (?, ?, ?)";
+
+    private static final String DAYS_BY_EMPLOYEE_SQL =
+            "SELECT employee_id, SUM(approved_days) FROM leave_usage WHERE period BETWEEN ? AND ? GROUP BY employee_id";
+
+    private static final String DAYS_OF_EMPLOYEE_SQL =
+            "SELECT COALESCE(SUM(approved_days), 0) FROM leave_usage WHERE employee_id = ? AND period BETWEEN ? AND ?";
+
+    private static final String HAS_USAGE_SQL = "SELECT EXISTS (SELECT 1 FROM leave_usage)";
+
+    // Incremental updates share the lock row; a rebuild takes it exclusively, so no update can land
+    // between the rebuild reading the approved requests and replacing the table
+    private static final String LOCK_SHARED_SQL = "SELECT id FROM leave_usage_lock WHERE id = 1 FOR SHARE";
+
+    private static final String LOCK_EXCLUSIVE_SQL = "SELECT id FROM leave_usage_lock WHERE id = 1 FOR UPDATE";
+
+    private static final String MONTHS_OF_EMPLOYEE_SQL =
+            "SELECT period, approved_days FROM leave_usage WHERE employee_id = ? AND period BETWEEN ? AND ?";
+
+    // Number of rows sent to the database per JDBC batch
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private WorkingDayCalendar workingDayCalendar;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Returns true if a leave request status counts as approved.
+     */
+    public static boolean isApproved(String status) {
+        return STATUS_APPROVED.equalsIgnoreCase(status);
+    }
+
+    /**
+     * Applies a status change of a leave request to the aggregate: its working days in each month
+     * are added when it becomes approved and subtracted when an approved request is rejected or reset.
+     * Must run in the transaction that saves the status change, with the request row locked.
+     *
+     * @param request The leave request, carrying its new status.
+     * @param previousStatus The status the request had before the change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChange(LeaveRequest request, String previousStatus) {
+        boolean wasApproved = isApproved(previousStatus);
+        boolean approved = isApproved(request.getStatus());
+        if (wasApproved == approved || request.getStartDate() == null) {
+            return;
+        }
+        jdbcTemplate.queryForList(LOCK_SHARED_SQL, Integer.class);
+        int sign = approved ? 1 : -1;
+        List<Map.Entry<Integer, Integer>> months = new ArrayList<>(splitByMonth(request).entrySet());
+        jdbcTemplate.batchUpdate(ADD_DAYS_SQL, months, BATCH_SIZE, (ps, month) -> {
+            ps.setLong(1, request.getEmployeeId());
+            ps.setInt(2, month.getKey());
+            ps.setInt(3, sign * month.getValue());
+            ps.setInt(4, sign * month.getValue());
+        });
+    }
+
+    /**
+     * Builds the aggregate at startup if it is empty, e.g. right after it was created or reset by a migration.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_USAGE_SQL, Boolean.class))) {
+                // Called on this instance, so the transaction is opened here rather than by the proxy
+                new TransactionTemplate(transactionManager).execute(status -> rebuild());
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not build the leave usage aggregate at startup", e);
+        }
+    }
+
+    /**
+     * Recomputes the whole aggregate from the approved leave requests with the current working-day
+     * calendar. Run it after holidays are added or removed.
+     * Status changes wait while the rebuild runs: it holds the {@code leave_usage_lock} row exclusively,
+     * and takes it before its first read, so it sees every approval that committed before it and
+     * every later approval is applied on top of the rebuilt table.
+     *
+     * @return The number of employee-month rows written.
+     */
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.queryForList(LOCK_EXCLUSIVE_SQL, Integer.class);
+        Map<Long, Map<Integer, Integer>> usage = new HashMap<>();
+        for (LeaveRequest request : leaveRequestRepository.findByStatusIgnoreCase(STATUS_APPROVED)) {
+            if (request.getEmployeeId() == null || request.getStartDate() == null) {
+                continue;
+            }
+            Map<Integer, Integer> months = usage.computeIfAbsent(request.getEmployeeId(), id -> new HashMap<>());
+            splitByMonth(request).forEach((period, days) -> months.merge(period, days, Integer::sum));
+        }
+        List<long[]> rows = new ArrayList<>();
+        usage.forEach((employeeId, months) ->
+                months.forEach((period, days) -> rows.add(new long[]{employeeId, period, days})));
+
+        jdbcTemplate.update("DELETE FROM leave_usage");
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, BATCH_SIZE, (ps, row) -> {
+            ps.setLong(1, row[0]);
+            ps.setInt(2, (int) row[1]);
+            ps.setInt(3, (int) row[2]);
+        });
+        logger.info("Rebuilt leave usage: " + rows.size() + " employee-months for " + usage.size() + " employees");
+        return rows.size();
+    }
+
+    /**
+     * Returns an employee's leave usage report for a year: for each month, its working days and
+     * the employee's approved leave days.
+     *
+     * @param employeeId The ID of the employee.
+     * @param year The year of the report.
+     * @return One entry per month with "month", "workingDays" and "approvedLeaveDays", plus the year totals.
+     */
+    public Map<String, Object> getUsageReport(Long employeeId, int year) {
+        int[] approved = new int[12];
+        jdbcTemplate.query(MONTHS_OF_EMPLOYEE_SQL, rs -> {
+            approved[rs.getInt(1) % 100 - 1] = rs.getInt(2);
+        }, employeeId, PayPeriod.key(year, Month.JANUARY), PayPeriod.key(year, Month.DECEMBER));
+
+        List<Map<String, Object>> months = new ArrayList<>(12);
+        int totalWorkingDays = 0;
+        int totalApproved = 0;
+        for (Month month : Month.values()) {
+            int workingDays = workingDayCalendar.countWorkingDays(YearMonth.of(year, month));
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("month", PayPeriod.monthName(month));
+            row.put("workingDays", workingDays);
+            row.put("approvedLeaveDays", approved[month.ordinal()]);
+            months.add(row);
+            totalWorkingDays += workingDays;
+            totalApproved += approved[month.ordinal()];
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("employeeId", employeeId);
+        report.put("year", year);
+        report.put("workingDays", totalWorkingDays);
+        report.put("approvedLeaveDays", totalApproved);
+        report.put("months", months);
+        return report;
+    }
+
+    private Map<Integer, Integer> splitByMonth(LeaveRequest request) {
+        LocalDate end = request.getEndDate() != null ? request.getEndDate() : request.getStartDate();
+        return workingDayCalendar.splitByMonth(request.getStartDate(), end);
+    }
+
+    /**
+     * Returns the approved leave days of every employee in a month, read with one query.
+     *
+     * @param period The numeric period key (yyyymm).
+     * @return Approved days by employee ID; employees without approved leave are absent.
+     */
+    public Map<Long, Integer> getApprovedDaysByEmployee(int period) {
+        return approvedDaysByEmployee(period, period);
+    }
+
+    /**
+     * Returns the approved leave days of every employee from the start of the year up to and
+     * including a month, read with one query.
+     *
+     * @param period The numeric period key (yyyymm) of the last month counted.
+     * @return Approved days by employee ID; employees without approved leave are absent.
+     */
+    public Map<Long, Integer> getApprovedDaysInYearByEmployee(int period) {
+        return approvedDaysByEmployee(firstPeriodOfYear(period), period);
+    }
+
+    /**
+     * Returns an employee's approved leave days from the start of the year up to and including a month.
+     *
+     * @param employeeId The ID of the employee.
+     * @param period The numeric period key (yyyymm) of the last month counted.
+     */
+    public int getApprovedDaysInYear(Long employeeId, int period) {
+        Integer days = jdbcTemplate.queryForObject(DAYS_OF_EMPLOYEE_SQL, Integer.class,
+                employeeId, firstPeriodOfYear(period), period);
+        return days != null ? days : 0;
+    }
+
+    private Map<Long, Integer> approvedDaysByEmployee(int fromPeriod, int toPeriod) {
+        List<long[]> rows = jdbcTemplate.query(DAYS_BY_EMPLOYEE_SQL,
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)}, fromPeriod, toPeriod);
+        Map<Long, Integer> days = new HashMap<>(rows.size() * 2);
+        for (long[] row : rows) {
+            days.put(row[0], (int) row[1]);
+        }
+        return days;
+    }
+
+    private static int firstPeriodOfYear(int period) {
+        return period / 100 * 100 + 1;
+    }
+}
@@ -0,0 +1,300 @@
+package com.payflow.payflow.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Asynchronous outbound mail pipeline.
+ * Messages are put on a bounded queue and returned to the caller immediately; a small pool of
+ * worker threads sends them, each worker keeping its own SMTP connection open between messages
+ * and closing it after {@code payflow.mail.idle-connection-close-ms} without work. Failed sends
+ * are retried with exponential backoff up to {@code payflow.mail.max-attempts} times.
+ * Sends are paced across all workers to at most {@code payflow.mail.max-per-second} messages
+ * per second (0 means unlimited), to stay under the mail provider's sending limits during bulk
+ * fan-outs.
+ *
+ * Metrics (Micrometer): {@code payflow.mail.queue.depth}, {@code payflow.mail.send.latency}
+ * (one SMTP send), {@code payflow.mail.delivery.latency} (submit to delivered, including retries)
+ * and the counters {@code payflow.mail.sent}, {@code .failed}, {@code .retried} and {@code .rejected}.
+ */
+@Service
+public class MailPipeline {
+
+    private static final Logger logger = Logger.getLogger(MailPipeline.class.getName());
+
+    private final JavaMailSender mailSender;
+    private final BlockingQueue<MailTask> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService retryScheduler;
+    // Messages waiting for a retry; whoever removes a message (the retry or shutdown) completes or requeues it
+    private final Set<MailTask> pendingRetries = ConcurrentHashMap.newKeySet();
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long idleCloseMillis;
+    private final long sendIntervalNanos;
+    private final AtomicLong nextSendAt = new AtomicLong(System.nanoTime());
+    private volatile boolean running = true;
+
+    private final Timer sendLatency;
+    private final Timer deliveryLatency;
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter retried;
+    private final Counter rejected;
+
+    public MailPipeline(JavaMailSender mailSender,
+                        MeterRegistry meterRegistry,
+                        @Value("${payflow.mail.workers:2}") int workerCount,
+                        @Value("${payflow.mail.queue-capacity:1000}") int queueCapacity,
+                        @Value("${payflow.mail.max-attempts:5}") int maxAttempts,
+                        @Value("${payflow.mail.retry-initial-backoff-ms:2000}") long initialBackoffMillis,
+                        @Value("${payflow.mail.retry-max-backoff-ms:60000}") long maxBackoffMillis,
+                        @Value("${payflow.mail.idle-connection-close-ms:30000}") long idleCloseMillis,
+                        @Value("${payflow.mail.max-per-second:0}") double maxPerSecond) {
+        this.mailSender = mailSender;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.idleCloseMillis = idleCloseMillis;
+        this.sendIntervalNanos = maxPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / maxPerSecond) : 0;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("mail-retry").daemon(true).factory());
+
+        Gauge.builder("payflow.mail.queue.depth", queue, BlockingQueue::size)
+                .description("Messages waiting to be sent")
+                .register(meterRegistry);
+        this.sendLatency = Timer.builder("payflow.mail.send.latency")
+                .description("Time to hand one message to the SMTP server")
+                .register(meterRegistry);
+        this.deliveryLatency = Timer.builder("payflow.mail.delivery.latency")
+                .description("Time from submit to delivery, including queueing and retries")
+                .register(meterRegistry);
+        this.sent = meterRegistry.counter("payflow.mail.sent");
+        this.failed = meterRegistry.counter("payflow.mail.failed");
+        this.retried = meterRegistry.counter("payflow.mail.retried");
+        this.rejected = meterRegistry.counter("payflow.mail.rejected");
+
+        // SMTP I/O blocks inside synchronized JavaMail code, so the workers are platform threads
+        ThreadFactory workerFactory = Thread.ofPlatform().name("mail-worker-", 0).daemon(true).factory();
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            Thread worker = workerFactory.newThread(this::runWorker);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues a message for sending without waiting for the mail server.
+     *
+     * @param message The message to send.
+     * @return A future completed when the message has been delivered, or completed exceptionally
+     *         when the queue is full or all attempts failed.
+     */
+    public CompletableFuture<Void> submit(SimpleMailMessage message) {
+        MailTask task = new MailTask(message);
+        if (!running || !queue.offer(task)) {
+            rejected.increment();
+            task.future.completeExceptionally(new RejectedExecutionException("Mail queue is full or shut down"));
+        }
+        return task.future;
+    }
+
+    /**
+     * Returns the number of messages waiting to be sent.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void runWorker() {
+        Transport transport = null;
+        long lastUsed = System.nanoTime();
+        while (running || !queue.isEmpty()) {
+            MailTask task;
+            try {
+                task = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (task == null) {
+                // Idle: release the SMTP connection until there is work again
+                if (transport != null && System.nanoTime() - lastUsed > TimeUnit.MILLISECONDS.toNanos(idleCloseMillis)) {
+                    transport = close(transport);
+                }
+                continue;
+            }
+            // A connection that sat idle may have been dropped by the server; check it with a NOOP first
+            boolean verify = System.nanoTime() - lastUsed > TimeUnit.SECONDS.toNanos(1);
+            lastUsed = System.nanoTime();
+
+            awaitSendSlot();
+            task.attempts++;
+            long start = System.nanoTime();
+            try {
+                transport = send(transport, task.message, verify);
+                sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                deliveryLatency.record(System.nanoTime() - task.submittedAt, TimeUnit.NANOSECONDS);
+                sent.increment();
+                task.future.complete(null);
+            } catch (Exception e) {
+                // The connection may be broken; the next message opens a fresh one
+                transport = close(transport);
+                retryOrFail(task, e);
+            }
+        }
+        close(transport);
+    }
+
+    /**
+     * Waits for the next free send slot of the shared rate limit. Slots are handed out
+     * {@code 1 / max-per-second} apart, so the workers together never exceed the limit.
+     */
+    private void awaitSendSlot() {
+        if (sendIntervalNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long slot = Math.max(now, nextSendAt.getAndAccumulate(now, (next, current) -> Math.max(next, current) + sendIntervalNanos));
+        long wait;
+        while ((wait = slot - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    /**
+     * Sends a message over the worker's connection, opening it first if needed (or if {@code verify}
+     * is set and the connection no longer answers).
+     * Falls back to the sender's own per-message connection if it is not a {@link JavaMailSenderImpl}.
+     *
+     * @return The connection to reuse for the next message.
+     */
+    private Transport send(Transport transport, SimpleMailMessage message, boolean verify) throws MessagingException {
+        if (!(mailSender instanceof JavaMailSenderImpl sender)) {
+            mailSender.send(message);
+            return null;
+        }
+        if (transport == null || (verify && !transport.isConnected())) {
+            close(transport);
+            transport = sender.getSession().getTransport(sender.getProtocol());
+            transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+        }
+        MimeMessage mimeMessage = sender.createMimeMessage();
+        message.copyTo(new MimeMailMessage(mimeMessage));
+        if (mimeMessage.getSentDate() == null) {
+            mimeMessage.setSentDate(new Date());
+        }
+        mimeMessage.saveChanges();
+        transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+        return transport;
+    }
+
+    private void retryOrFail(MailTask task, Exception error) {
+        if (task.attempts >= maxAttempts || !running) {
+            failed.increment();
+            logger.log(Level.WARNING, "Giving up on mail to " + String.join(",", recipients(task.message))
+                    + " after " + task.attempts + " attempt(s)", error);
+            task.future.completeExceptionally(error);
+            return;
+        }
+        long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(task.attempts - 1, 20));
+        backoff += ThreadLocalRandom.current().nextLong(backoff / 4 + 1);
+        retried.increment();
+        logger.info("Mail to " + String.join(",", recipients(task.message)) + " failed (" + error.getMessage()
+                + "); retrying in " + backoff + " ms");
+        pendingRetries.add(task);
+        retryScheduler.schedule(() -> {
+            if (pendingRetries.remove(task) && !queue.offer(task)) {
+                rejected.increment();
+                task.future.completeExceptionally(new RejectedExecutionException("Mail queue is full", error));
+            }
+        }, backoff, TimeUnit.MILLISECONDS);
+    }
+
+    private static String[] recipients(SimpleMailMessage message) {
+        return message.getTo() != null ? message.getTo() : new String[0];
+    }
+
+    private static Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                logger.log(Level.FINE, "Error closing SMTP connection", e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stops accepting messages, lets the workers send what is already queued and closes their connections.
+     * Messages still waiting for a retry, or left in the queue when the workers stop, are completed
+     * exceptionally, so no caller waits on them forever.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        retryScheduler.shutdownNow();
+        for (MailTask task : pendingRetries) {
+            if (pendingRetries.remove(task)) {
+                failOnShutdown(task);
+            }
+        }
+        try {
+            retryScheduler.awaitTermination(1, TimeUnit.SECONDS);
+            for (Thread worker : workers) {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        MailTask task;
+        while ((task = queue.poll()) != null) {
+            failOnShutdown(task);
+        }
+    }
+
+    private void failOnShutdown(MailTask task) {
+        failed.increment();
+        task.future.completeExceptionally(new RejectedExecutionException("Mail pipeline shut down before the message was sent"));
+    }
+
+    /**
+     * A queued message with its delivery state.
+     */
+    private static final class MailTask {
+
+        private final SimpleMailMessage message;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final long submittedAt = System.nanoTime();
+        private int attempts;
+
+        private MailTask(SimpleMailMessage message) {
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.model.NotificationOutbox;
+import com.payflow.payflow.repository.NotificationOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service class for the transactional notification outbox.
+ * Callers write notifications with {@link #enqueueEmail} inside the transaction that changes the
+ * leave request or payslip, so a notification is stored if and only if the change commits. The
+ * dispatcher then drains the outbox in batches: it claims due rows (marking them SENDING with a
+ * lease), hands them to the {@link MailPipeline}, and marks them SENT once delivered. Rows whose
+ * delivery fails go back to PENDING with a backoff; rows claimed by a node that died are picked
+ * up again when their lease expires. Delivery is therefore at-least-once.
+ */
+@Service
+public class NotificationOutboxService {
+
+    private static final Logger logger = Logger.getLogger(NotificationOutboxService.class.getName());
+
+    public static final String CHANNEL_EMAIL = "EMAIL";
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENDING = "SENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private MailPipeline mailPipeline;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    /**
+     * Maximum number of notifications claimed per dispatcher pass.
+     */
+    @Value("${payflow.outbox.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * How long a claimed notification stays reserved for the node sending it.
+     * Must cover the mail pipeline's own retries.
+     */
+    @Value("${payflow.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    /**
+     * Delivery attempts before a notification is marked FAILED.
+     */
+    @Value("${payflow.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    /**
+     * Writes an email notification to the outbox. Must be called inside the transaction of the
+     * change the notification is about; it is sent after that transaction commits.
+     *
+     * @param to The recipient's email address.
+     * @param subject The subject line.
+     * @param body The message body.
+     * @param aggregateType The kind of record the notification is about (e.g., "LEAVE_REQUEST").
+     * @param aggregateId The ID of that record.
+     * @return The stored outbox record, or null if the recipient is missing.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public NotificationOutbox enqueueEmail(String to, String subject, String body, String aggregateType, Long aggregateId) {
+        if (to == null || to.trim().isEmpty()) {
+            logger.warning("Not queuing notification \"" + subject + "\" for " + aggregateType + " " + aggregateId
+                    + ": recipient email is null or empty");
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        NotificationOutbox notification = new NotificationOutbox();
+        notification.setChannel(CHANNEL_EMAIL);
+        notification.setRecipient(to);
+        notification.setSubject(subject);
+        notification.setBody(body);
+        notification.setAggregateType(aggregateType);
+        notification.setAggregateId(aggregateId);
+        notification.setStatus(STATUS_PENDING);
+        notification.setAttempts(0);
+        notification.setNextAttemptAt(now);
+        notification.setCreatedAt(now);
+        return outboxRepository.save(notification);
+    }
+
+    /**
+     * Drains due notifications from the outbox into the mail pipeline.
+     * Runs every {@code payflow.outbox.poll-interval-ms}; does not wait for delivery.
+     */
+    @Scheduled(fixedDelayString = "${payflow.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        try {
+            List<NotificationOutbox> batch;
+            do {
+                batch = claimBatch();
+                for (NotificationOutbox notification : batch) {
+                    send(notification);
+                }
+            } while (batch.size() == batchSize && mailPipeline.getQueueDepth() < batchSize);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Notification outbox dispatch failed", e);
+        }
+    }
+
+    /**
+     * Returns the number of notifications waiting to be sent.
+     */
+    public long getPendingCount() {
+        return outboxRepository.countByStatus(STATUS_PENDING);
+    }
+
+    /**
+     * Locks the next due rows and marks them SENDING with a lease, in one short transaction.
+     */
+    private List<NotificationOutbox> claimBatch() {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<NotificationOutbox> batch = outboxRepository.lockDueBatch(now, batchSize);
+            for (NotificationOutbox notification : batch) {
+                notification.setStatus(STATUS_SENDING);
+                notification.setLockedUntil(now.plusSeconds(leaseSeconds));
+            }
+            return outboxRepository.saveAll(batch);
+        });
+    }
+
+    private void send(NotificationOutbox notification) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(notification.getRecipient());
+        message.setSubject(notification.getSubject());
+        message.setText(notification.getBody());
+
+        Long outboxId = notification.getOutboxId();
+        mailPipeline.submit(message).whenComplete((ignored, error) -> {
+            try {
+                if (error == null) {
+                    outboxRepository.markSent(outboxId, LocalDateTime.now());
+                } else {
+                    markFailedAttempt(outboxId, error);
+                }
+            } catch (Exception e) {
+                // The lease expires and the row is retried; the recipient may get it twice
+                logger.log(Level.WARNING, "Could not record delivery result of notification " + outboxId, e);
+            }
+        });
+    }
+
+    /**
+     * Returns a notification to PENDING with an exponential backoff, or marks it FAILED when
+     * it has used up its attempts.
+     */
+    private void markFailedAttempt(Long outboxId, Throwable error) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outboxRepository.findById(outboxId).ifPresent(notification -> {
+                    if (!STATUS_SENDING.equals(notification.getStatus())) {
+                        return;
+                    }
+                    int attempts = notification.getAttempts() + 1;
+                    notification.setAttempts(attempts);
+                    notification.setLockedUntil(null);
+                    notification.setLastError(error.getMessage());
+                    if (attempts >= maxAttempts) {
+                        notification.setStatus(STATUS_FAILED);
+                        logger.warning("Notification " + outboxId + " to " + notification.getRecipient()
+                                + " failed after " + attempts + " attempts: " + error.getMessage());
+                    } else {
+                        long backoffSeconds = Math.min(3600, 30L << Math.min(attempts - 1, 10));
+                        notification.setStatus(STATUS_PENDING);
+                        notification.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoffSeconds));
+                    }
+                    outboxRepository.save(notification);
+                }));
+    }
+}
@@ -0,0 +1,157 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.model.EmployeeSummary;
+import com.payflow.payflow.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Service class for whole-subtree queries over the reporting hierarchy, backed by the
+ * {@code org_closure} table. The table holds every (ancestor, descendant) pair with its depth,
+ * each employee being its own ancestor at depth 0, so the reports of a manager at any depth are a
+ * single range scan of the primary key instead of one query per level.
+ *
+ * The table is maintained by {@link EmployeeService}: a new employee is linked below their manager,
+ * and assigning an employee to a new manager moves their whole subtree in one transaction.
+ * Changes hold the {@code org_closure_lock} row until they commit, so two concurrent moves (e.g. A
+ * under B and B under A) cannot both pass the cycle check.
+ */
+@Service
+public class OrgHierarchyService {
+
+    private static final String INSERT_SELF_SQL =
+            "INSERT IGNORE INTO org_closure (ancestor_id, descendant_id, depth) VALUES (?, ?, 0)";
+
+    // Unlink the subtree of the moved employee from all of the employee's current managers
+    private static final String DETACH_SUBTREE_SQL =
+            "DELETE link FROM org_closure link " +
+            "JOIN org_closure subtree ON subtree.descendant_id = link.descendant_id AND subtree.ancestor_id = ? " +
+            "JOIN org_closure managers ON managers.ancestor_id = link.ancestor_id AND managers.descendant_id = ? " +
+            "AND managers.depth > 0";
+
+    // Link every member of the subtree to the new manager and each of the new manager's own managers
+    private static final String ATTACH_SUBTREE_SQL =
+            "INSERT INTO org_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT managers.ancestor_id, subtree.descendant_id, managers.depth + subtree.depth + 1 " +
+            "FROM org_closure managers JOIN org_closure subtree ON subtree.ancestor_id = ? " +
+            "WHERE managers.descendant_id = ?";
+
+    private static final String IN_SUBTREE_SQL =
+            "SELECT EXISTS (SELECT 1 FROM org_closure WHERE ancestor_id = ? AND descendant_id = ? AND depth > 0)";
+
+    // Locking read: sees moves committed after this transaction's snapshot was taken
+    private static final String IN_SUBTREE_LOCKING_SQL =
+            "SELECT COUNT(*) FROM org_closure WHERE ancestor_id = ? AND descendant_id = ? AND depth > 0 FOR SHARE";
+
+    // Every change to org_closure holds this row, so changes are applied one at a time
+    private static final String LOCK_SQL = "SELECT id FROM org_closure_lock WHERE id = 1 FOR UPDATE";
+
+    private static final String SUBTREE_IDS_SQL =
+            "SELECT descendant_id FROM org_closure WHERE ancestor_id = ? AND depth BETWEEN 1 AND ? ORDER BY descendant_id";
+
+    private static final String SUBTREE_COUNT_SQL =
+            "SELECT COUNT(*) FROM org_closure WHERE ancestor_id = ? AND depth BETWEEN 1 AND ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    /**
+     * Adds a new employee to the hierarchy, below their manager if they have one.
+     * Call in the transaction that saves the employee.
+     *
+     * @param employeeId The ID of the new employee.
+     * @param managerId The ID of the employee's manager, or null.
+     */
+    @Transactional
+    public void addEmployee(Long employeeId, Long managerId) {
+        lock();
+        jdbcTemplate.update(INSERT_SELF_SQL, employeeId, employeeId);
+        if (managerId != null) {
+            jdbcTemplate.update(INSERT_SELF_SQL, managerId, managerId);
+            jdbcTemplate.update(ATTACH_SUBTREE_SQL, employeeId, managerId);
+        }
+    }
+
+    /**
+     * Moves an employee, with everyone reporting to them at any depth, below a new manager.
+     * Call in the transaction that changes the employee's manager.
+     *
+     * @param employeeId The ID of the employee to move.
+     * @param managerId The ID of the new manager, or null to detach the subtree.
+     * @throws IllegalArgumentException if the new manager is the employee or reports to the employee,
+     *         which would make the hierarchy a cycle.
+     */
+    @Transactional
+    public void moveEmployee(Long employeeId, Long managerId) {
+        lock();
+        if (managerId != null && (managerId.equals(employeeId) || isInSubtreeLocked(employeeId, managerId))) {
+            throw new IllegalArgumentException("Employee " + employeeId + " cannot report to " + managerId
+                    + ", who is in their own reporting line");
+        }
+        jdbcTemplate.update(INSERT_SELF_SQL, employeeId, employeeId);
+        jdbcTemplate.update(DETACH_SUBTREE_SQL, employeeId, employeeId);
+        if (managerId != null) {
+            jdbcTemplate.update(INSERT_SELF_SQL, managerId, managerId);
+            jdbcTemplate.update(ATTACH_SUBTREE_SQL, employeeId, managerId);
+        }
+    }
+
+    /**
+     * Returns true if an employee reports to a manager, directly or at any depth.
+     */
+    public boolean isInSubtree(Long managerId, Long employeeId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IN_SUBTREE_SQL, Boolean.class, managerId, employeeId));
+    }
+
+    private boolean isInSubtreeLocked(Long managerId, Long employeeId) {
+        Integer count = jdbcTemplate.queryForObject(IN_SUBTREE_LOCKING_SQL, Integer.class, managerId, employeeId);
+        return count != null && count > 0;
+    }
+
+    private void lock() {
+        jdbcTemplate.queryForList(LOCK_SQL, Integer.class);
+    }
+
+    /**
+     * Returns the IDs of everyone reporting to a manager, directly or indirectly.
+     *
+     * @param managerId The ID of the manager.
+     * @param maxDepth The deepest level to include (1 for direct reports), or null for all levels.
+     * @return The employee IDs in ascending order.
+     */
+    public List<Long> getSubtreeIds(Long managerId, Integer maxDepth) {
+        return jdbcTemplate.queryForList(SUBTREE_IDS_SQL, Long.class, managerId, depth(maxDepth));
+    }
+
+    /**
+     * Returns the summaries of everyone reporting to a manager, nearest levels first, with one join query.
+     *
+     * @param managerId The ID of the manager.
+     * @param maxDepth The deepest level to include (1 for direct reports), or null for all levels.
+     */
+    public List<EmployeeSummary> getSubtree(Long managerId, Integer maxDepth) {
+        return employeeRepository.findSubtreeSummaries(managerId, depth(maxDepth));
+    }
+
+    /**
+     * Counts everyone reporting to a manager, directly or indirectly (the manager's headcount).
+     *
+     * @param managerId The ID of the manager.
+     * @param maxDepth The deepest level to include (1 for direct reports), or null for all levels.
+     */
+    public int countSubtree(Long managerId, Integer maxDepth) {
+        Integer count = jdbcTemplate.queryForObject(SUBTREE_COUNT_SQL, Integer.class, managerId, depth(maxDepth));
+        return count != null ? count : 0;
+    }
+
+    private static int depth(Integer maxDepth) {
+        return maxDepth == null ? Integer.MAX_VALUE : Math.max(1, maxDepth);
+    }
+}
@@ -0,0 +1,188 @@
+package com.payflow.payflow.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Hashes and verifies account passwords with BCrypt at cost {@code payflow.auth.bcrypt-strength}.
+ *
+ * A BCrypt verification is deliberately CPU-heavy, so verifications run on a small dedicated pool
+ * ({@code payflow.auth.hash-threads}) with a bounded queue ({@code payflow.auth.hash-queue-capacity})
+ * instead of on the web threads: a login storm fills the queue and further logins are rejected
+ * at once rather than tying up every request thread and the CPU.
+ *
+ * Accounts created before hashing was introduced still hold their password in plain text. Such a
+ * password is accepted, and {@link Verification#needsUpgrade()} tells the caller to replace it with
+ * {@link #upgradeLater}; hashes of a lower cost than the configured one are upgraded the same way.
+ * Upgrades are hashed on a separate single thread after the login has been answered, so a storm of
+ * first logins after a deployment does not double the work on the verification pool. An upgrade
+ * that does not fit its queue is dropped and happens at a later login instead.
+ *
+ * Metrics (Micrometer): {@code payflow.auth.hash.queue.depth} and the counters {@code payflow.auth.hash.rejected}
+ * and {@code payflow.auth.hash.upgrades.dropped}.
+ */
+@Service
+public class PasswordHasher {
+
+    private static final Logger logger = Logger.getLogger(PasswordHasher.class.getName());
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\A\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor upgradeExecutor;
+    private final Counter rejected;
+
+    // Checked when a failed login compared no hash, so an unknown username takes as long as a wrong password
+    private final String unknownAccountHash;
+
+    public PasswordHasher(MeterRegistry meterRegistry,
+                          @Value("${payflow.auth.bcrypt-strength:10}") int strength,
+                          @Value("${payflow.auth.hash-threads:0}") int threads,
+                          @Value("${payflow.auth.hash-queue-capacity:200}") int queueCapacity) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        // Hashing is pure CPU work, so the pool is sized to cores rather than to the request load
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        Counter dropped = meterRegistry.counter("payflow.auth.hash.upgrades.dropped");
+        this.upgradeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                Thread.ofPlatform().name("password-upgrade").daemon(true).factory(),
+                (task, pool) -> dropped.increment());
+        this.unknownAccountHash = encoder.encode("unknown-account");
+
+        Gauge.builder("payflow.auth.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password verifications waiting for a hashing thread")
+                .register(meterRegistry);
+        this.rejected = meterRegistry.counter("payflow.auth.hash.rejected");
+    }
+
+    /**
+     * Hashes a new password for storage. Runs on the calling thread; use it only where a password
+     * is set, which is rare compared to logins.
+     *
+     * @param rawPassword The password as entered.
+     * @return The BCrypt hash, including its salt and cost.
+     */
+    public String hash(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    /**
+     * Checks a password against the stored passwords of the accounts a login name may refer to,
+     * in order, as one task on the hashing pool.
+     *
+     * @param rawPassword The password as entered.
+     * @param storedPasswords The stored password of each candidate account: a BCrypt hash, or the
+     *        plain-text password of an account that has not logged in since hashing was introduced.
+     * @return A future with the first matching account, or completed exceptionally with a
+     *         {@link RejectedExecutionException} when the hashing queue is full.
+     */
+    public CompletableFuture<Verification> verify(String rawPassword, List<String> storedPasswords) {
+        try {
+            return CompletableFuture.supplyAsync(() -> verifyNow(rawPassword, storedPasswords), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Verification verifyNow(String rawPassword, List<String> storedPasswords) {
+        boolean hashChecked = false;
+        for (int i = 0; i < storedPasswords.size(); i++) {
+            String stored = storedPasswords.get(i);
+            if (stored == null) {
+                continue;
+            }
+            if (isHash(stored)) {
+                hashChecked = true;
+                if (encoder.matches(rawPassword, stored)) {
+                    return new Verification(i, encoder.upgradeEncoding(stored));
+                }
+            } else if (MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8),
+                    rawPassword.getBytes(StandardCharsets.UTF_8))) {
+                return new Verification(i, true);
+            }
+        }
+        if (!hashChecked) {
+            encoder.matches(rawPassword, unknownAccountHash);
+        }
+        return Verification.NO_MATCH;
+    }
+
+    /**
+     * Hashes a password on the upgrade thread and hands the hash to {@code store}, after the caller
+     * has answered the login. Use it when {@link Verification#needsUpgrade()} is true.
+     *
+     * @param rawPassword The password that was just verified.
+     * @param store Writes the new hash, replacing the stored password only if it is unchanged.
+     */
+    public void upgradeLater(String rawPassword, Consumer<String> store) {
+        upgradeExecutor.execute(() -> {
+            try {
+                store.accept(encoder.encode(rawPassword));
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Could not store an upgraded password hash", e);
+            }
+        });
+    }
+
+    /**
+     * Returns true if a stored password is a BCrypt hash rather than a legacy plain-text password.
+     */
+    public static boolean isHash(String storedPassword) {
+        return storedPassword != null && BCRYPT_HASH.matcher(storedPassword).find();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        upgradeExecutor.shutdownNow();
+    }
+
+    /**
+     * Outcome of a password check.
+     */
+    public static final class Verification {
+
+        static final Verification NO_MATCH = new Verification(-1, false);
+
+        private final int matchedIndex;
+        private final boolean needsUpgrade;
+
+        private Verification(int matchedIndex, boolean needsUpgrade) {
+            this.matchedIndex = matchedIndex;
+            this.needsUpgrade = needsUpgrade;
+        }
+
+        public boolean isMatch() { return matchedIndex >= 0; }
+
+        /**
+         * Returns the index, in the list passed to {@link #verify}, of the account the password matched, or -1.
+         */
+        public int getMatchedIndex() { return matchedIndex; }
+
+        /**
+         * Returns true if the matched account's stored password is plain text or hashed at a lower
+         * cost than configured, and should be replaced through {@link #upgradeLater}.
+         */
+        public boolean needsUpgrade() { return needsUpgrade; }
+    }
+}
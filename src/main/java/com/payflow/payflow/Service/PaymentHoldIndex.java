@@ -0,0 +1,112 @@
+package com.payflow.payflow.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * In-memory set of the IDs of employees with a payment hold.
+ * The IDs are kept in a sorted primitive {@code long[]} that is replaced on every change
+ * (copy-on-write): holds change rarely and are read constantly, so lookups are a lock-free
+ * binary search over a volatile snapshot and never box an ID. Writes are serialized.
+ *
+ * A full reload only replaces the snapshot if no write happened while the reload was
+ * reading the database, so a slow reload cannot undo a concurrent write-through.
+ */
+public final class PaymentHoldIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private volatile long[] heldIds = EMPTY;
+    private volatile boolean loaded;
+    private long version;
+
+    /**
+     * Check whether an employee has a payment hold.
+     *
+     * @param employeeId The ID of the employee.
+     * @return true if the employee is in the index.
+     */
+    public boolean contains(long employeeId) {
+        return Arrays.binarySearch(heldIds, employeeId) >= 0;
+    }
+
+    /**
+     * Returns true once the index has been loaded from the database at least once.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the number of employees in the index.
+     */
+    public int size() {
+        return heldIds.length;
+    }
+
+    /**
+     * Adds an employee to the index.
+     */
+    public synchronized void add(long employeeId) {
+        long[] current = heldIds;
+        int position = Arrays.binarySearch(current, employeeId);
+        if (position < 0) {
+            int insertAt = -position - 1;
+            long[] next = new long[current.length + 1];
+            System.arraycopy(current, 0, next, 0, insertAt);
+            next[insertAt] = employeeId;
+            System.arraycopy(current, insertAt, next, insertAt + 1, current.length - insertAt);
+            heldIds = next;
+        }
+        version++;
+    }
+
+    /**
+     * Removes an employee from the index.
+     */
+    public synchronized void remove(long employeeId) {
+        long[] current = heldIds;
+        int position = Arrays.binarySearch(current, employeeId);
+        if (position >= 0) {
+            long[] next = new long[current.length - 1];
+            System.arraycopy(current, 0, next, 0, position);
+            System.arraycopy(current, position + 1, next, position, current.length - position - 1);
+            heldIds = next;
+        }
+        version++;
+    }
+
+    /**
+     * Returns a token to pass to {@link #replace} that identifies the current state of the index.
+     * Take it before reading the held IDs from the database.
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Replaces the contents of the index with a full set of held employee IDs.
+     *
+     * @param employeeIds The IDs of all employees with a payment hold.
+     * @param expectedVersion The token returned by {@link #version()} before the IDs were read.
+     * @return false if the index was written in the meantime and the IDs were discarded as possibly stale.
+     */
+    public synchronized boolean replace(Collection<Long> employeeIds, long expectedVersion) {
+        if (version != expectedVersion) {
+            return false;
+        }
+        long[] next = new long[employeeIds.size()];
+        int size = 0;
+        for (Long employeeId : employeeIds) {
+            if (employeeId != null) {
+                next[size++] = employeeId;
+            }
+        }
+        next = Arrays.copyOf(next, size);
+        Arrays.sort(next);
+        heldIds = next;
+        loaded = true;
+        version++;
+        return true;
+    }
+}
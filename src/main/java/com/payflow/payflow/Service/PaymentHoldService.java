@@ -1,8 +1,14 @@
 package com.payflow.payflow.Service;
 
+import com.payflow.payflow.model.Employee;
 import com.payflow.payflow.model.PaymentHold;
+import com.payflow.payflow.repository.KeysetQuery;
 import com.payflow.payflow.repository.PaymentHoldRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -10,16 +16,33 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Service class for managing payment holds.
  * This class provides business logic for applying, removing, and retrieving payment holds.
+ *
+ * Hold checks are answered from an in-memory {@link PaymentHoldIndex} that is loaded at startup
+ * and written through by {@link #applyPaymentHold} and {@link #removePaymentHold}. Holds changed
+ * by another node are picked up by a full reload every {@code payflow.payment-hold.refresh-interval-ms}.
  */
 @Service
 public class PaymentHoldService {
 
+    private static final Logger logger = Logger.getLogger(PaymentHoldService.class.getName());
+
     private final PaymentHoldRepository paymentHoldRepository;
     private final EmployeeService employeeService;
+    private final PaymentHoldIndex holdIndex = new PaymentHoldIndex();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Payment hold attributes a list view may request.
+     */
+    public static final List<String> PAGE_FIELDS = List.of("id", "employeeId", "reason", "appliedOn", "appliedBy");
 
     /**
      * Constructor for dependency injection.
@@ -33,6 +56,33 @@ public class PaymentHoldService {
         this.employeeService = employeeService;
     }
 
+    /**
+     * Load the payment hold index when the application starts.
+     * If the database is not reachable yet, the index is loaded on first use instead.
+     */
+    @PostConstruct
+    public void loadHoldIndex() {
+        try {
+            refreshHoldIndex();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not load the payment hold index at startup", e);
+        }
+    }
+
+    /**
+     * Reload the payment hold index from the database, so holds applied or removed on other
+     * nodes become visible. Runs every {@code payflow.payment-hold.refresh-interval-ms}.
+     */
+    @Scheduled(fixedDelayString = "${payflow.payment-hold.refresh-interval-ms:60000}",
+               initialDelayString = "${payflow.payment-hold.refresh-interval-ms:60000}")
+    public void refreshHoldIndex() {
+        long version = holdIndex.version();
+        List<Long> heldEmployeeIds = paymentHoldRepository.findAllEmployeeIds();
+        if (!holdIndex.replace(heldEmployeeIds, version)) {
+            logger.fine("Payment hold index changed during refresh; keeping the written-through state until the next refresh");
+        }
+    }
+
     /**
      * Get all employees with payment holds.
      * 
@@ -51,16 +101,62 @@ public class PaymentHoldService {
         }
     }
 
+    /**
+     * Get one page of payment holds in ID order, selecting only the requested columns.
+     * 
+     * @param afterId The cursor returned with the previous page, or null for the first page.
+     * @param limit The page size; clamped to {@link KeysetQuery#MAX_LIMIT}.
+     * @param appliedBy Only holds applied by this user, or null for all.
+     * @param fields Comma-separated attributes to return (see {@link #PAGE_FIELDS}), or null for all of them.
+     * @return The page of payment holds as attribute maps, with the cursor of the next page.
+     * @throws IllegalArgumentException if a requested field is unknown.
+     */
+    public KeysetQuery.Page getPaymentHoldPage(Long afterId, Integer limit, Long appliedBy, String fields) {
+        return KeysetQuery.from(entityManager, PaymentHold.class)
+                .select(KeysetQuery.parseFields(fields, PAGE_FIELDS, PAGE_FIELDS))
+                .whereEquals("appliedBy", appliedBy)
+                .after(afterId)
+                .fetch(KeysetQuery.limit(limit));
+    }
+
     /**
      * Check if an employee has a payment hold.
+     * Answered from the in-memory hold index; no query is issued once the index is loaded.
      * 
      * @param employeeId The ID of the employee.
      * @return true if the employee has a payment hold, false otherwise.
      */
     public boolean hasPaymentHold(Long employeeId) {
-        boolean hasHold = paymentHoldRepository.findByEmployeeId(employeeId).isPresent();
-        System.out.println("Checking payment hold for employee " + employeeId + ": " + hasHold);
-        return hasHold;
+        return employeeId != null && loadedIndex().contains(employeeId);
+    }
+
+    /**
+     * Set the transient hasPaymentHold flag on a list of employees.
+     * Every employee is looked up in the in-memory hold index, so marking the list issues no
+     * query at all once the index is loaded.
+     * 
+     * @param employees The employees to mark.
+     * @return The same list, for chaining.
+     */
+    public List<Employee> markPaymentHolds(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return employees;
+        }
+        PaymentHoldIndex index = loadedIndex();
+        for (Employee employee : employees) {
+            employee.setHasPaymentHold(employee.getId() != null && index.contains(employee.getId()));
+        }
+        return employees;
+    }
+
+    /**
+     * Returns the hold index, loading it first if the startup load did not succeed.
+     */
+    private PaymentHoldIndex loadedIndex() {
+        if (!holdIndex.isLoaded()) {
+            refreshHoldIndex();
+        }
+        return holdIndex;
     }
 
     /**
@@ -112,6 +208,7 @@ public class PaymentHoldService {
             paymentHold.setAppliedOn(LocalDateTime.now());
             
             PaymentHold savedHold = paymentHoldRepository.save(paymentHold);
+            holdIndex.add(employeeId);
             System.out.println("Payment hold saved successfully: " + savedHold.getId());
             
             response.put("success", true);
@@ -155,6 +252,7 @@ public class PaymentHoldService {
             
             // Remove payment hold
             paymentHoldRepository.deleteByEmployeeId(employeeId);
+            holdIndex.remove(employeeId);
             
             response.put("success", true);
             response.put("message", "Payment hold removed successfully");
@@ -0,0 +1,289 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.model.PayrollRun;
+import com.payflow.payflow.model.PayrollRunChunk;
+import com.payflow.payflow.repository.PayrollRunChunkRepository;
+import com.payflow.payflow.repository.PayrollRunRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Service class for the payroll run ledger.
+ * Month-end jobs register a run split into ID-range chunks, check each chunk off as it commits,
+ * and on restart pick up an unfinished run for the same job, month and year so that only the
+ * chunks that never committed are processed again. A run is claimed by one invocation at a time
+ * with a lease that each committed chunk renews, so concurrent invocations for the same month
+ * never process the same chunks.
+ */
+@Service
+public class PayrollRunLedgerService {
+
+    private static final Logger logger = Logger.getLogger(PayrollRunLedgerService.class.getName());
+
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    public static final String CHUNK_PENDING = "PENDING";
+    public static final String CHUNK_COMMITTED = "COMMITTED";
+    public static final String CHUNK_FAILED = "FAILED";
+
+    @Autowired
+    private PayrollRunRepository payrollRunRepository;
+
+    @Autowired
+    private PayrollRunChunkRepository payrollRunChunkRepository;
+
+    /**
+     * How long a claim on a run lasts without a committed chunk; after that the run counts as
+     * abandoned and the next invocation for the month resumes it.
+     */
+    @Value("${payflow.payroll.run-lease-seconds:900}")
+    private long leaseSeconds;
+
+    /**
+     * Resumes the unfinished run of a job for a month and year, or starts a new one, and claims it
+     * for this invocation for {@code payflow.payroll.run-lease-seconds}.
+     * A new run is split into contiguous ID-range chunks of at most {@code chunkSize} employees;
+     * the last chunk is open-ended so employees created before a resume are still covered.
+     * A resumed run keeps its original chunk boundaries and regenerate flag. A RUNNING run is only
+     * resumed once its lease has expired, i.e. the invocation processing it stopped renewing it.
+     *
+     * @param jobType The kind of job (e.g., "PAYSLIP", "PAYROLL").
+     * @param month The month of the run (e.g., "January").
+     * @param year The year of the run.
+     * @param regenerate Whether a new run replaces existing payslips.
+     * @param employeeIds The IDs of all employees in ascending order, used to split a new run.
+     * @param chunkSize The maximum number of employees per chunk of a new run.
+     * @return The claimed run, with status RUNNING, and whether it was resumed.
+     * @throws IllegalStateException if another invocation is processing the run for the month.
+     */
+    @Transactional
+    public ClaimedRun startOrResume(String jobType, String month, int year, boolean regenerate,
+                                    List<Long> employeeIds, int chunkSize) {
+        Optional<PayrollRun> unfinished = payrollRunRepository.findFirstByJobTypeAndMonthAndYearAndStatusInOrderByStartedAtDesc(
+                jobType, month, year, List.of(STATUS_RUNNING, STATUS_FAILED));
+        String owner = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+
+        if (unfinished.isPresent()) {
+            Long runId = unfinished.get().getRunId();
+            int claimed;
+            try {
+                claimed = payrollRunRepository.claim(runId, owner, now, leaseFrom(now));
+            } catch (DataIntegrityViolationException e) {
+                // Another run for the month was started and is RUNNING
+                claimed = 0;
+            }
+            if (claimed == 0) {
+                throw new IllegalStateException(jobType + " run " + runId + " for " + month + " " + year
+                        + " is already being processed");
+            }
+            PayrollRun run = payrollRunRepository.findById(runId).orElseThrow();
+            logger.info("Resuming " + jobType + " run " + runId + " for " + month + " " + year + " at chunk "
+                    + run.getCompletedChunks() + " of " + run.getTotalChunks());
+            return new ClaimedRun(run, true);
+        }
+
+        List<long[]> ranges = partitionIds(employeeIds, chunkSize);
+
+        PayrollRun run = new PayrollRun();
+        run.setJobType(jobType);
+        run.setMonth(month);
+        run.setYear(year);
+        run.setRegenerate(regenerate);
+        run.setStatus(STATUS_RUNNING);
+        run.setTotalChunks(ranges.size());
+        run.setStartedAt(now);
+        run.setUpdatedAt(now);
+        run.setOwner(owner);
+        run.setLeaseUntil(leaseFrom(now));
+        PayrollRun savedRun;
+        try {
+            savedRun = payrollRunRepository.saveAndFlush(run);
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race against a concurrent start for the same month
+            throw new IllegalStateException(jobType + " run for " + month + " " + year + " is already being processed");
+        }
+
+        List<PayrollRunChunk> chunks = new ArrayList<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            PayrollRunChunk chunk = new PayrollRunChunk();
+            chunk.setRunId(savedRun.getRunId());
+            chunk.setChunkIndex(i);
+            chunk.setFromEmployeeId(ranges.get(i)[0]);
+            chunk.setToEmployeeId(ranges.get(i)[1]);
+            chunk.setStatus(CHUNK_PENDING);
+            chunks.add(chunk);
+        }
+        payrollRunChunkRepository.saveAll(chunks);
+
+        logger.info("Started " + jobType + " run " + savedRun.getRunId() + " for " + month + " " + year
+                + " with " + ranges.size() + " chunks");
+        return new ClaimedRun(savedRun, false);
+    }
+
+    /**
+     * Get the chunks of a run that have not been committed yet.
+     *
+     * @param runId The ID of the run.
+     * @return The pending and failed chunks in chunk order.
+     */
+    public List<PayrollRunChunk> getPendingChunks(Long runId) {
+        return payrollRunChunkRepository.findByRunIdAndStatusNotOrderByChunkIndex(runId, CHUNK_COMMITTED);
+    }
+
+    /**
+     * Get all chunks of a run.
+     *
+     * @param runId The ID of the run.
+     * @return The chunks in chunk order.
+     */
+    public List<PayrollRunChunk> getChunks(Long runId) {
+        return payrollRunChunkRepository.findByRunIdOrderByChunkIndex(runId);
+    }
+
+    /**
+     * Get all runs for a month and year, newest first.
+     *
+     * @param month The month of the runs.
+     * @param year The year of the runs.
+     * @return A list of runs.
+     */
+    public List<PayrollRun> getRuns(String month, Integer year) {
+        return payrollRunRepository.findByMonthAndYearOrderByStartedAtDesc(month, year);
+    }
+
+    /**
+     * Marks a chunk as committed and renews the run's lease. Must be called inside the transaction
+     * that writes the chunk's payslips so that the checkpoint and the data commit or roll back together.
+     *
+     * @param run The claimed run the chunk belongs to.
+     * @param chunk The chunk that was processed.
+     * @param generated The number of payslips the chunk generated.
+     * @param failed The number of employees in the chunk without a payslip.
+     * @throws IllegalStateException if the run is no longer claimed by this invocation, so that the
+     *         chunk's transaction rolls back instead of racing the invocation that took it over.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markChunkCommitted(PayrollRun run, PayrollRunChunk chunk, int generated, int failed) {
+        if (payrollRunRepository.renewLease(run.getRunId(), run.getOwner(), leaseFrom(LocalDateTime.now())) == 0) {
+            throw new IllegalStateException("Payroll run " + run.getRunId() + " is no longer claimed by this invocation");
+        }
+        chunk.setStatus(CHUNK_COMMITTED);
+        chunk.setGeneratedCount(generated);
+        chunk.setFailedCount(failed);
+        chunk.setErrorMessage(null);
+        chunk.setCommittedAt(LocalDateTime.now());
+        payrollRunChunkRepository.save(chunk);
+    }
+
+    /**
+     * Marks a chunk as failed after its transaction rolled back, so that it is retried on resume.
+     *
+     * @param chunk The chunk that failed.
+     * @param errorMessage The reason the chunk rolled back.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markChunkFailed(PayrollRunChunk chunk, String errorMessage) {
+        chunk.setStatus(CHUNK_FAILED);
+        chunk.setErrorMessage(errorMessage);
+        payrollRunChunkRepository.save(chunk);
+    }
+
+    /**
+     * Totals the committed chunks of a run and closes it. The run is COMPLETED when every chunk
+     * has committed, and FAILED otherwise so that the next run for the same month resumes it.
+     * A run that another invocation has taken over in the meantime is returned unchanged.
+     *
+     * @param claimed The run as claimed by this invocation.
+     * @return The updated run.
+     */
+    @Transactional
+    public PayrollRun finishRun(PayrollRun claimed) {
+        Long runId = claimed.getRunId();
+        PayrollRun run = payrollRunRepository.findById(runId)
+                .orElseThrow(() -> new IllegalArgumentException("Payroll run not found: " + runId));
+        if (!Objects.equals(run.getOwner(), claimed.getOwner())) {
+            logger.warning("Payroll run " + runId + " was taken over by another invocation; not closing it");
+            return run;
+        }
+
+        int completed = 0;
+        int generated = 0;
+        int failed = 0;
+        for (PayrollRunChunk chunk : payrollRunChunkRepository.findByRunIdOrderByChunkIndex(runId)) {
+            if (CHUNK_COMMITTED.equals(chunk.getStatus())) {
+                completed++;
+                generated += chunk.getGeneratedCount();
+                failed += chunk.getFailedCount();
+            }
+        }
+
+        run.setCompletedChunks(completed);
+        run.setGeneratedCount(generated);
+        run.setFailedCount(failed);
+        run.setStatus(completed == run.getTotalChunks() ? STATUS_COMPLETED : STATUS_FAILED);
+        run.setUpdatedAt(LocalDateTime.now());
+        run.setOwner(null);
+        run.setLeaseUntil(null);
+        return payrollRunRepository.save(run);
+    }
+
+    private LocalDateTime leaseFrom(LocalDateTime now) {
+        return now.plusSeconds(leaseSeconds);
+    }
+
+    /**
+     * Splits an ascending list of IDs into contiguous, inclusive [fromId, toId] ranges holding
+     * at most {@code size} of the IDs. Each range ends just before the next one starts, and the
+     * last range is open-ended.
+     *
+     * @param ids The employee IDs in ascending order.
+     * @param size The maximum number of IDs per range.
+     * @return The inclusive ID ranges.
+     */
+    static List<long[]> partitionIds(List<Long> ids, int size) {
+        List<long[]> ranges = new ArrayList<>();
+        int step = Math.max(1, size);
+        for (int i = 0; i < ids.size(); i += step) {
+            int next = i + step;
+            long toId = next < ids.size() ? ids.get(next) - 1 : Long.MAX_VALUE;
+            ranges.add(new long[] { ids.get(i), toId });
+        }
+        return ranges;
+    }
+
+    /**
+     * A run claimed by {@link #startOrResume}.
+     */
+    public static final class ClaimedRun {
+
+        private final PayrollRun run;
+        private final boolean resumed;
+
+        private ClaimedRun(PayrollRun run, boolean resumed) {
+            this.run = run;
+            this.resumed = resumed;
+        }
+
+        public PayrollRun getRun() { return run; }
+
+        /**
+         * Returns true if an unfinished run was resumed, false if a new run was started.
+         */
+        public boolean isResumed() { return resumed; }
+    }
+}
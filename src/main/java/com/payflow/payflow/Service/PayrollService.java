@@ -2,50 +2,115 @@ package com.payflow.payflow.Service;
 
 import com.payflow.payflow.model.CTCDetails;
 import com.payflow.payflow.model.Employee;
-import com.payflow.payflow.Entity.LeaveRequest;
+import com.payflow.payflow.model.PayPeriod;
+import com.payflow.payflow.model.PayrollRun;
+import com.payflow.payflow.model.PayrollRunChunk;
 import com.payflow.payflow.model.Payslip;
-import com.payflow.payflow.repository.CTCDetailsRepository;
+import com.payflow.payflow.model.PayslipBreakdown;
 import com.payflow.payflow.repository.EmployeeRepository;
-import com.payflow.payflow.repository.LeaveRequestRepository;
 import com.payflow.payflow.repository.PayslipRepository;
+import com.payflow.payflow.salary.Money;
+import com.payflow.payflow.salary.SalaryPlan;
+import com.payflow.payflow.salary.SalaryRules;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Service class responsible for generating and managing payroll for all employees.
  * This service calculates monthly payslips based on an employee's CTC, approved leaves,
  * and handles deductions for unpaid leave. It also supports regenerating payroll for a
- * specific period.
+ * specific period, either in one transaction or as a partitioned run where ID-range
+ * chunks are processed in parallel, committed independently and checkpointed in the
+ * payroll run ledger so that an interrupted run can be resumed.
  */
 @Service
 public class PayrollService {
 
+    private static final Logger logger = Logger.getLogger(PayrollService.class.getName());
+
     @Autowired
     private EmployeeRepository employeeRepository;
 
     @Autowired
-    private CTCDetailsRepository ctcDetailsRepository;
+    private CtcTimelineCache ctcTimelineCache;
+
+    @Autowired
+    private LeaveUsageService leaveUsageService;
 
     @Autowired
-    private LeaveRequestRepository leaveRequestRepository;
+    private WorkingDayCalendar workingDayCalendar;
 
     @Autowired
     private PayslipRepository payslipRepository;
 
+    @Autowired
+    private PayrollRunLedgerService payrollRunLedgerService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("payrollSalaryPlan")
+    private SalaryPlan payrollSalaryPlan;
+
+    // Input slots of the payroll salary plan, resolved once after injection
+    private int totalCtcSlot;
+    private int workingDaysSlot;
+    private int approvedLeaveDaysSlot;
+    private int leaveBalanceSlot;
+    private int leaveDeductionSlot;
+
+    // Job type under which partitioned payroll runs are recorded in the run ledger
+    private static final String JOB_TYPE = "PAYROLL";
+
+    /**
+     * Default number of chunks processed at the same time in a partitioned run.
+     */
+    @Value("${payflow.payroll.parallelism:4}")
+    private int defaultParallelism;
+
+    /**
+     * Number of employees in each ID-range chunk of a partitioned run.
+     */
+    @Value("${payflow.payroll.chunk-size:200}")
+    private int chunkSize;
+
+    /**
+     * Resolves the input slots of the payroll salary plan once, so calculating a payslip only
+     * fills the input array.
+     */
+    @PostConstruct
+    void resolveSalaryPlanSlots() {
+        totalCtcSlot = payrollSalaryPlan.slotIndex(SalaryRules.TOTAL_CTC);
+        workingDaysSlot = payrollSalaryPlan.slotIndex(SalaryRules.WORKING_DAYS_IN_MONTH);
+        approvedLeaveDaysSlot = payrollSalaryPlan.slotIndex(SalaryRules.APPROVED_LEAVE_DAYS);
+        leaveBalanceSlot = payrollSalaryPlan.slotIndex(SalaryRules.LEAVE_BALANCE);
+        leaveDeductionSlot = payrollSalaryPlan.slotIndex(SalaryRules.LEAVE_DEDUCTION);
+    }
+
     /**
      * Generates or regenerates payslips for all employees for a specified month and year.
      * The process involves:
      * 1. Iterating through all active employees.
      * 2. Finding the most recent CTC record for each employee.
-     * 3. Summing up approved leave days for the payroll month.
+     * 3. Looking up approved leave days for the payroll month in the leave usage aggregate (one query for the run).
      * 4. Calculating deductions for any unpaid leave (when approved leave exceeds the employee's balance).
      * 5. Creating and saving a new Payslip entry with the calculated net pay and deductions.
      *
@@ -57,67 +122,252 @@ public class PayrollService {
      */
     @Transactional
     public void generatePayroll(String month, int year, boolean regenerate) {
-        System.out.println("Initiating payroll generation for month: " + month + ", year: " + year);
+        logger.info("Initiating payroll generation for month: " + month + ", year: " + year);
 
-        // Format the month and year to match your database format
-        String formattedMonth = String.format("%s-%d", month, year);
+        YearMonth yearMonth = YearMonth.of(year, getMonthNumber(month));
+        int period = PayPeriod.key(yearMonth);
 
         if (regenerate) {
-            System.out.println("Regenerate flag is true. Deleting existing payslips for " + formattedMonth);
-            payslipRepository.deleteByMonthAndYear(month, year);
+            logger.info("Regenerate flag is true. Deleting existing payslips for " + month + "-" + year);
+            payslipRepository.deleteByPeriod(period);
         }
 
         List<Employee> employees = employeeRepository.findAll();
-        YearMonth yearMonth = YearMonth.of(year, getMonthNumber(month));
-        int totalWorkingDays = yearMonth.lengthOfMonth();
+        Map<Long, Integer> approvedDaysByEmployee = leaveUsageService.getApprovedDaysByEmployee(period);
 
         for (Employee emp : employees) {
-            if (!regenerate && payslipRepository.findByEmployeeIdAndMonthAndYear(emp.getId(), month, year).isPresent()) {
-                System.out.println("Payslip for employee " + emp.getId() + " already exists for " + formattedMonth + ". Skipping.");
+            if (!regenerate && payslipRepository.findByEmployeeIdAndPeriod(emp.getId(), period).isPresent()) {
+                logger.fine("Payslip for employee " + emp.getId() + " already exists for " + month + "-" + year + ". Skipping.");
                 continue;
             }
 
-            // 1. Get CTC from the ctc_details table
-            // This logic finds the most recent CTC record that was effective before the payroll month
-            Optional<CTCDetails> ctcDetailsOpt = ctcDetailsRepository.findByEmployeeIdAndEffectiveFromBeforeOrderByEffectiveFromDesc(
-                    emp.getId(), LocalDate.of(year, getMonthNumber(month), 1)).stream().findFirst();
-
-            if (ctcDetailsOpt.isEmpty()) {
-                System.out.println("⚠️ Skipping employee " + emp.getId() + " - No CTC details found.");
+            Payslip payslip = calculatePayslip(emp, month, yearMonth, approvedDaysByEmployee.getOrDefault(emp.getId(), 0));
+            if (payslip == null) {
+                logger.warning("Skipping employee " + emp.getId() + " - No CTC details found.");
                 continue;
             }
+            payslipRepository.save(payslip);
+        }
+        logger.info("Payroll generation finished for " + month + "-" + year);
+    }
 
-            BigDecimal annualCtc = ctcDetailsOpt.get().getTotalCTC();
-            BigDecimal monthlySalary = annualCtc.divide(BigDecimal.valueOf(12), 2, BigDecimal.ROUND_HALF_UP);
+    /**
+     * Generates or regenerates payroll as a partitioned run using the configured parallelism.
+     *
+     * @see #generatePayrollPartitioned(String, int, boolean, int)
+     */
+    public Map<String, Object> generatePayrollPartitioned(String month, int year, boolean regenerate) {
+        return generatePayrollPartitioned(month, year, regenerate, defaultParallelism);
+    }
 
-            // 2. Sum approved leaves from leave_request table for the given month
-            List<LeaveRequest> approvedLeaves = leaveRequestRepository.findByEmployeeIdAndStatusAndStartDateBetween(
-                    emp.getId(), "Approved", yearMonth.atDay(1), yearMonth.atEndOfMonth());
+    /**
+     * Generates or regenerates payroll for a month and year as a partitioned, resumable run.
+     * Employees are split into contiguous ID-range chunks of {@code payflow.payroll.chunk-size}
+     * employees which are recorded in the payroll run ledger. Chunks are computed on virtual
+     * threads, at most {@code parallelism} at a time, and each chunk is committed together with
+     * its ledger checkpoint in its own short transaction. If an earlier run for the same month
+     * did not finish, it is resumed and only its uncommitted chunks are processed.
+     *
+     * @param month The month for which payroll is to be generated (e.g., "January").
+     * @param year The year for which payroll is to be generated (e.g., 2025).
+     * @param regenerate If true, existing payslips of each chunk are deleted before it is regenerated.
+     * Ignored when an unfinished run is resumed, which keeps its original setting.
+     * @param parallelism The maximum number of chunks processed at the same time.
+     * @return A Map containing the success status, the run ledger state, this invocation's totals,
+     * the per-chunk progress and the failure list.
+     */
+    public Map<String, Object> generatePayrollPartitioned(String month, int year, boolean regenerate, int parallelism) {
+        Map<String, Object> response = new HashMap<>();
+        long startedAt = System.currentTimeMillis();
+
+        try {
+            YearMonth yearMonth = YearMonth.of(year, getMonthNumber(month));
+            PayrollRunLedgerService.ClaimedRun claimed = payrollRunLedgerService.startOrResume(
+                    JOB_TYPE, month, year, regenerate, employeeRepository.findAllIds(), chunkSize);
+            PayrollRun run = claimed.getRun();
+            boolean resumed = claimed.isResumed();
+            boolean regenerateRun = Boolean.TRUE.equals(run.getRegenerate());
+            List<PayrollRunChunk> pending = payrollRunLedgerService.getPendingChunks(run.getRunId());
+            // Approved leave of every employee for the month, read once and shared by all chunks
+            Map<Long, Integer> approvedDaysByEmployee = leaveUsageService.getApprovedDaysByEmployee(PayPeriod.key(yearMonth));
+            int threads = Math.max(1, parallelism);
+            logger.info("Running payroll run " + run.getRunId() + " for " + month + "-" + year + ": " + pending.size()
+                    + " of " + run.getTotalChunks() + " chunks pending, parallelism " + threads);
 
-            int approvedLeaveDays = approvedLeaves.stream().mapToInt(LeaveRequest::getDays).sum();
-            int unpaidLeaves = Math.max(0, approvedLeaveDays - emp.getLeaveBalance());
+            List<Map<String, Object>> chunks = new ArrayList<>();
+            ExecutorService executor = Executors.newFixedThreadPool(threads, Thread.ofVirtual().name("payroll-", 0).factory());
+            try {
+                List<Future<Map<String, Object>>> futures = new ArrayList<>();
+                for (PayrollRunChunk chunk : pending) {
+                    futures.add(executor.submit(() -> runChunk(run, chunk, month, yearMonth, regenerateRun, approvedDaysByEmployee)));
+                }
+                for (Future<Map<String, Object>> future : futures) {
+                    chunks.add(future.get());
+                }
+            } finally {
+                executor.shutdown();
+            }
 
-            // 3. Calculate leave deduction
-            BigDecimal leaveDeduction = BigDecimal.ZERO;
-            if (unpaidLeaves > 0) {
-                BigDecimal perDaySalary = monthlySalary.divide(BigDecimal.valueOf(totalWorkingDays), 2, BigDecimal.ROUND_HALF_UP);
-                leaveDeduction = perDaySalary.multiply(BigDecimal.valueOf(unpaidLeaves));
+            int generated = 0;
+            int skipped = 0;
+            List<Map<String, Object>> failures = new ArrayList<>();
+            for (Map<String, Object> chunk : chunks) {
+                generated += (Integer) chunk.get("generated");
+                skipped += (Integer) chunk.get("skipped");
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> chunkFailures = (List<Map<String, Object>>) chunk.get("failures");
+                failures.addAll(chunkFailures);
             }
 
-            // 4. Calculate net pay
-            BigDecimal netPay = monthlySalary.subtract(leaveDeduction);
+            PayrollRun finished = payrollRunLedgerService.finishRun(run);
+            long elapsed = System.currentTimeMillis() - startedAt;
+            logger.info("Payroll run " + run.getRunId() + " for " + month + "-" + year + " is " + finished.getStatus()
+                    + " after " + elapsed + " ms. Generated: " + generated + ", Skipped: " + skipped
+                    + ", Failed: " + failures.size());
 
-            // 5. Save to the Payslip table
-            Payslip payslip = new Payslip();
-            payslip.setEmployeeId(emp.getId());
-            payslip.setMonth(month);
-            payslip.setYear(year);
-            payslip.setNetPay(netPay);
-            payslip.setDeductions(leaveDeduction); // Store leave deduction in the 'deductions' column
+            response.put("success", PayrollRunLedgerService.STATUS_COMPLETED.equals(finished.getStatus()));
+            response.put("message", "Payroll run " + finished.getRunId() + " " + finished.getStatus().toLowerCase()
+                    + ". Chunks: " + finished.getCompletedChunks() + "/" + finished.getTotalChunks()
+                    + ", Generated: " + generated + ", Skipped: " + skipped + ", Failed: " + failures.size());
+            response.put("runId", finished.getRunId());
+            response.put("status", finished.getStatus());
+            response.put("resumed", resumed);
+            response.put("totalChunks", finished.getTotalChunks());
+            response.put("completedChunks", finished.getCompletedChunks());
+            response.put("generated", generated);
+            response.put("skipped", skipped);
+            response.put("elapsedMillis", elapsed);
+            response.put("chunks", chunks);
+            response.put("failures", failures);
 
-            payslipRepository.save(payslip);
-            System.out.printf("✅ Generated payslip for Employee ID %d (Net Pay: %.2f) for month %s\n", emp.getId(), netPay, formattedMonth);
+        } catch (ExecutionException e) {
+            response.put("success", false);
+            response.put("message", "Error generating payroll: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.put("success", false);
+            response.put("message", "Payroll generation was interrupted");
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Error generating payroll: " + e.getMessage());
+        }
+
+        return response;
+    }
+
+    /**
+     * Processes one ID-range chunk of a partitioned run in its own transaction and checks it off
+     * in the run ledger as part of that transaction. Per-employee errors are collected as failures;
+     * an error that aborts the transaction rolls the chunk back and marks it FAILED in the ledger
+     * so that it is retried when the run is resumed.
+     *
+     * @return A Map describing the chunk: its bounds, generated and skipped counts, and failures.
+     */
+    private Map<String, Object> runChunk(PayrollRun run, PayrollRunChunk ledgerChunk, String month, YearMonth yearMonth, boolean regenerate,
+                                         Map<Long, Integer> approvedDaysByEmployee) {
+        long fromId = ledgerChunk.getFromEmployeeId();
+        long toId = ledgerChunk.getToEmployeeId();
+        Map<String, Object> chunk = new HashMap<>();
+        chunk.put("chunk", ledgerChunk.getChunkIndex());
+        chunk.put("fromId", fromId);
+        chunk.put("toId", toId);
+
+        List<Map<String, Object>> failures = new ArrayList<>();
+        int[] counts = new int[2]; // generated, skipped
+        int period = PayPeriod.key(yearMonth);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (regenerate) {
+                    payslipRepository.deleteByPeriodAndEmployeeIdBetween(period, fromId, toId);
+                }
+                Set<Long> existing = regenerate ? Collections.emptySet() : new HashSet<>(
+                        payslipRepository.findEmployeeIdsByPeriodAndEmployeeIdBetween(period, fromId, toId));
+
+                List<Payslip> payslips = new ArrayList<>();
+                for (Employee emp : employeeRepository.findByIdBetween(fromId, toId)) {
+                    if (existing.contains(emp.getId())) {
+                        counts[1]++;
+                        continue;
+                    }
+                    try {
+                        Payslip payslip = calculatePayslip(emp, month, yearMonth, approvedDaysByEmployee.getOrDefault(emp.getId(), 0));
+                        if (payslip == null) {
+                            failures.add(failure(emp.getId(), "No CTC details found"));
+                            continue;
+                        }
+                        payslips.add(payslip);
+                    } catch (Exception e) {
+                        failures.add(failure(emp.getId(), e.getMessage()));
+                    }
+                }
+                payslipRepository.saveAll(payslips);
+                counts[0] = payslips.size();
+                payrollRunLedgerService.markChunkCommitted(run, ledgerChunk, counts[0], failures.size());
+            });
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Payroll chunk " + ledgerChunk.getChunkIndex() + " [" + fromId + ".." + toId + "] rolled back", e);
+            payrollRunLedgerService.markChunkFailed(ledgerChunk, e.getMessage());
+            counts[0] = 0;
+            counts[1] = 0;
+            failures.clear();
+            Map<String, Object> chunkFailure = new HashMap<>();
+            chunkFailure.put("fromId", fromId);
+            chunkFailure.put("toId", toId);
+            chunkFailure.put("message", "Chunk rolled back: " + e.getMessage());
+            failures.add(chunkFailure);
         }
+
+        chunk.put("generated", counts[0]);
+        chunk.put("skipped", counts[1]);
+        chunk.put("failures", failures);
+        logger.fine("Payroll chunk " + ledgerChunk.getChunkIndex() + " [" + fromId + ".." + toId + "] committed " + counts[0] + " payslips");
+        return chunk;
+    }
+
+    /**
+     * Calculates an employee's payslip for the month from the most recent CTC record effective
+     * before the month and the approved leave taken in the month.
+     *
+     * @param approvedLeaveDays The employee's approved leave days in the month, from the leave usage aggregate.
+     * @return The unsaved Payslip, or null if the employee has no CTC details.
+     */
+    private Payslip calculatePayslip(Employee emp, String month, YearMonth yearMonth, int approvedLeaveDays) {
+        // 1. Get CTC from the ctc_details table
+        // This logic finds the most recent CTC record that was effective before the payroll month
+        Optional<CTCDetails> ctcDetailsOpt = ctcTimelineCache.findLatestEffectiveBefore(emp.getId(), yearMonth.atDay(1));
+
+        if (ctcDetailsOpt.isEmpty()) {
+            return null;
+        }
+
+        // 2. Evaluate the payroll salary plan: monthly pay less loss of pay for leave beyond the balance
+        long[] inputs = payrollSalaryPlan.newInputs();
+        inputs[totalCtcSlot] = Money.of(ctcDetailsOpt.get().getTotalCTC(), RoundingMode.HALF_UP);
+        // Leave days are working days, so the daily rate is per working day (at least 1 in an all-holiday month)
+        inputs[workingDaysSlot] = Money.of(Math.max(1, workingDayCalendar.countWorkingDays(yearMonth)));
+        inputs[approvedLeaveDaysSlot] = Money.of(approvedLeaveDays);
+        inputs[leaveBalanceSlot] = Money.of(emp.getLeaveBalance());
+        SalaryPlan.Result result = payrollSalaryPlan.evaluate(inputs);
+
+        Payslip payslip = new Payslip();
+        payslip.setEmployeeId(emp.getId());
+        payslip.setMonth(month);
+        payslip.setYear(yearMonth.getYear());
+        payslip.setPeriod(PayPeriod.key(yearMonth));
+        // The payroll plan deducts only loss of pay, so the PF and gratuity lines are zero
+        payslip.setBreakdown(PayslipBreakdown.of(ctcDetailsOpt.get(), 0, 0, result.get(leaveDeductionSlot)));
+        payslip.setNetPay(Money.toBigDecimal(result.getNetPay()));
+        payslip.setDeductions(Money.toBigDecimal(result.getTotalDeductions())); // Store leave deduction in the 'deductions' column
+        return payslip;
+    }
+
+    private Map<String, Object> failure(Long employeeId, String message) {
+        Map<String, Object> failure = new HashMap<>();
+        failure.put("employeeId", employeeId);
+        failure.put("message", message);
+        return failure;
     }
 
     /**
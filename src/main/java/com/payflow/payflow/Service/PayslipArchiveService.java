@@ -0,0 +1,158 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.model.CTCDetails;
+import com.payflow.payflow.model.Employee;
+import com.payflow.payflow.model.PayPeriod;
+import com.payflow.payflow.model.Payslip;
+import com.payflow.payflow.repository.PayslipRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service class for exporting all payslips of a month as a single ZIP archive.
+ * Payslips are read through a streaming cursor together with their employee, and each document
+ * is written into the archive as soon as its row arrives, so memory use does not depend on the
+ * number of employees. Documents rendered into the {@link PayslipDocumentStore} are copied from
+ * disk; others are rendered on the fly from their stored breakdown or, for payslips generated
+ * before the breakdown was stored, from the CTC in force for the period, as a single download is.
+ */
+@Service
+public class PayslipArchiveService {
+
+    private static final Logger logger = Logger.getLogger(PayslipArchiveService.class.getName());
+
+    @Autowired
+    private PayslipRepository payslipRepository;
+
+    @Autowired
+    private PayslipPdfService payslipPdfService;
+
+    @Autowired
+    private PayslipDocumentStore payslipDocumentStore;
+
+    @Autowired
+    private CtcTimelineCache ctcTimelineCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Check whether there is anything to export for a month and year.
+     *
+     * @param month The month of the payslips (e.g., "January"). Must already be validated.
+     * @param year The year of the payslips.
+     * @return True if at least one payslip exists for the month.
+     */
+    public boolean hasPayslips(String month, Integer year) {
+        return payslipRepository.existsByPeriod(PayPeriod.key(year, month));
+    }
+
+    /**
+     * Returns the file name of the archive for a month and year.
+     */
+    public static String archiveFileName(String month, Integer year) {
+        return "payslips_" + month + "_" + year + ".zip";
+    }
+
+    /**
+     * Writes a ZIP archive with one PDF per payslip of the month to the given output.
+     * The archive is finished but the output is not closed.
+     *
+     * @param month The month of the payslips (e.g., "January"). Must already be validated.
+     * @param year The year of the payslips.
+     * @param out The stream to write the archive to.
+     * @return The number of payslips written to the archive.
+     * @throws IOException if writing to the stream fails.
+     */
+    @Transactional(readOnly = true)
+    public int writeArchive(String month, Integer year, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        int written = 0;
+        int skipped = 0;
+
+        try (Stream<Object[]> rows = payslipRepository.streamWithEmployeeByPeriod(PayPeriod.key(year, month))) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                Payslip payslip = (Payslip) row[0];
+                Employee employee = (Employee) row[1];
+
+                if (writeEntry(zip, payslip, employee)) {
+                    written++;
+                } else {
+                    skipped++;
+                }
+
+                // Nothing is modified; keep the persistence context from growing with the cursor
+                entityManager.detach(payslip);
+                entityManager.detach(employee);
+            }
+        }
+
+        zip.finish();
+        zip.flush();
+        logger.info("Exported " + written + " payslips for " + month + " " + year
+                + (skipped > 0 ? " (" + skipped + " without CTC details skipped)" : ""));
+        return written;
+    }
+
+    /**
+     * Writes the document of one payslip as an archive entry.
+     *
+     * @return False if the payslip has no stored document and cannot be rendered because it has no
+     *         stored breakdown and no CTC is in force for its period.
+     */
+    private boolean writeEntry(ZipOutputStream zip, Payslip payslip, Employee employee) throws IOException {
+        Optional<Path> stored = payslipDocumentStore.hashFromLink(payslip.getDownloadLink())
+                .flatMap(payslipDocumentStore::resolve);
+        CTCDetails ctc = null;
+        if (!stored.isPresent() && payslip.getBreakdown() == null) {
+            ctc = findCtcInForce(payslip);
+            if (ctc == null) {
+                return false;
+            }
+        }
+
+        zip.putNextEntry(new ZipEntry(PayslipPdfService.fileName(payslip.getEmployeeId(), payslip.getMonth(), payslip.getYear())));
+        if (stored.isPresent()) {
+            Files.copy(stored.get(), zip);
+        } else {
+            payslipPdfService.render(payslipPdfService.documentFor(employee, payslip, ctc), zip);
+        }
+        zip.closeEntry();
+        return true;
+    }
+
+    /**
+     * Resolves the CTC record in force for a payslip's period. A timeline not yet cached is loaded in a
+     * transaction of its own, on another connection, since the streaming cursor holds this one.
+     */
+    private CTCDetails findCtcInForce(Payslip payslip) {
+        TransactionTemplate lookup = new TransactionTemplate(transactionManager);
+        lookup.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        lookup.setReadOnly(true);
+        return lookup.execute(status -> ctcTimelineCache
+                .findInForce(payslip.getEmployeeId(), PayPeriod.toYearMonth(payslip.getPeriod()))
+                .orElse(null));
+    }
+}
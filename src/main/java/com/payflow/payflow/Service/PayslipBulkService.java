@@ -0,0 +1,379 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.model.CTCDetails;
+import com.payflow.payflow.model.Employee;
+import com.payflow.payflow.model.PayPeriod;
+import com.payflow.payflow.model.PayrollRun;
+import com.payflow.payflow.model.PayrollRunChunk;
+import com.payflow.payflow.model.Payslip;
+import com.payflow.payflow.model.PayslipBreakdown;
+import com.payflow.payflow.repository.CTCDetailsRepository;
+import com.payflow.payflow.repository.EmployeeRepository;
+import com.payflow.payflow.repository.PaymentHoldRepository;
+import com.payflow.payflow.repository.PayslipRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Set-based engine for month-end payslip generation.
+ * Instead of running the single-payslip flow once per employee, this service loads the active
+ * employees, the CTC records in force for the month, the payment holds and the payslips that
+ * already exist in a fixed number of queries, computes every payslip in memory and writes them
+ * with JDBC batch inserts. The number of queries no longer grows with the headcount.
+ * Inserts are committed per chunk and checkpointed in the payroll run ledger, so a run that
+ * dies halfway resumes where it stopped. Each payslip's PDF is rendered into the
+ * {@link PayslipDocumentStore} as part of the run, and each chunk queues the payslip-ready
+ * notifications of its employees in the notification outbox in the same transaction, so the
+ * fan-out to employees starts as soon as their payslips are committed.
+ */
+@Service
+public class PayslipBulkService {
+
+    private static final Logger logger = Logger.getLogger(PayslipBulkService.class.getName());
+
+    private static final String INSERT_PAYSLIP_SQL =
+            "INSERT INTO payslip (employee_id, month, year, period, net_pay, deductions, generated_on, download_link, " +
+            "ctc_id, basic_pay, hra_pay, da_pay, special_allowance_pay, other_allowances_pay, gross_pay, pf_deduction, " +
+            "gratuity_deduction, leave_deduction) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_DOWNLOAD_LINK_SQL =
+            "UPDATE payslip SET download_link = ? WHERE employee_id = ? AND period = ?";
+
+    // Number of rows sent to the database per JDBC batch
+    private static final int BATCH_SIZE = 500;
+
+    // Job type under which bulk payslip runs are recorded in the run ledger
+    private static final String JOB_TYPE = "PAYSLIP";
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CTCDetailsRepository ctcDetailsRepository;
+
+    @Autowired
+    private PaymentHoldRepository paymentHoldRepository;
+
+    @Autowired
+    private PayslipRepository payslipRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PayrollRunLedgerService payrollRunLedgerService;
+
+    @Autowired
+    private PayslipPdfService payslipPdfService;
+
+    @Autowired
+    private PayslipDocumentStore payslipDocumentStore;
+
+    @Autowired
+    private PayslipNotificationService payslipNotificationService;
+
+    @Autowired
+    private PayslipCalculator payslipCalculator;
+
+    @Autowired
+    private LeaveUsageService leaveUsageService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Number of employees in each checkpointed chunk of a bulk run.
+     */
+    @Value("${payflow.payroll.chunk-size:200}")
+    private int chunkSize;
+
+    /**
+     * Generates payslips for all active employees for a month and year.
+     * Employees with a payment hold, without a CTC record for the month, or with an existing
+     * payslip for the month are reported as failures, exactly like the single-payslip flow.
+     * The run is split into ID-range chunks recorded in the payroll run ledger; each chunk is
+     * inserted and checked off in its own transaction, and an unfinished run for the same month
+     * is resumed from its first uncommitted chunk.
+     *
+     * @param month The month for which to generate payslips (e.g., "January"). Must already be validated.
+     * @param year The year for which to generate payslips.
+     * @return A Map containing the overall success status, a summary message, and a list of individual results.
+     */
+    public Map<String, Object> generateBulkPayslips(String month, Integer year) {
+        return generateBulkPayslips(month, year, null);
+    }
+
+    /**
+     * Generates payslips for all active employees for a month and year, reporting progress
+     * to the given listener as each chunk commits.
+     *
+     * @param month The month for which to generate payslips (e.g., "January"). Must already be validated.
+     * @param year The year for which to generate payslips.
+     * @param listener Receives the number of employees to process and the results of each chunk; may be null.
+     * @return A Map containing the overall success status, a summary message, and a list of individual results.
+     * @see #generateBulkPayslips(String, Integer)
+     */
+    public Map<String, Object> generateBulkPayslips(String month, Integer year, ProgressListener listener) {
+        Map<String, Object> response = new HashMap<>();
+        List<Map<String, Object>> results = new ArrayList<>();
+
+        try {
+            YearMonth yearMonth = YearMonth.of(year, PayPeriod.parseMonth(month));
+            LocalDate monthStart = yearMonth.atDay(1);
+            LocalDate monthEnd = yearMonth.atEndOfMonth();
+
+            // Load everything the run needs up front: one query per table
+            List<Employee> employees = new ArrayList<>(employeeRepository.findByStatusIgnoreCase("ACTIVE"));
+            employees.sort(Comparator.comparing(Employee::getId));
+            Map<Long, CTCDetails> ctcByEmployee = latestCtcByEmployee(
+                    ctcDetailsRepository.findActiveRecordsByDateRange(monthStart, monthEnd));
+            Set<Long> heldEmployeeIds = new HashSet<>(paymentHoldRepository.findAllEmployeeIds());
+            Set<Long> existingPayslipIds = new HashSet<>(payslipRepository.findEmployeeIdsByPeriod(PayPeriod.key(yearMonth)));
+            Map<Long, Integer> leavesUsedByEmployee = leaveUsageService.getApprovedDaysInYearByEmployee(PayPeriod.key(yearMonth));
+
+            List<Long> employeeIds = new ArrayList<>(employees.size());
+            for (Employee employee : employees) {
+                employeeIds.add(employee.getId());
+            }
+
+            PayrollRun run = payrollRunLedgerService.startOrResume(JOB_TYPE, month, year, false, employeeIds, chunkSize).getRun();
+            List<PayrollRunChunk> pending = payrollRunLedgerService.getPendingChunks(run.getRunId());
+
+            if (listener != null) {
+                int toProcess = 0;
+                for (PayrollRunChunk chunk : pending) {
+                    toProcess += countInRange(employeeIds, chunk.getFromEmployeeId(), chunk.getToEmployeeId());
+                }
+                listener.onStart(run.getRunId(), toProcess);
+            }
+
+            int successCount = 0;
+            int failCount = 0;
+            int next = 0; // Position in the ID-sorted employee list; pending chunks come in ID order
+
+            for (PayrollRunChunk chunk : pending) {
+                List<Map<String, Object>> chunkResults = new ArrayList<>();
+                List<Payslip> payslips = new ArrayList<>();
+                List<Employee> notified = new ArrayList<>();
+                int chunkFailures = 0;
+
+                while (next < employees.size() && employees.get(next).getId() < chunk.getFromEmployeeId()) {
+                    next++;
+                }
+                for (; next < employees.size() && employees.get(next).getId() <= chunk.getToEmployeeId(); next++) {
+                    Employee employee = employees.get(next);
+                    Map<String, Object> result = new HashMap<>();
+                    result.put("employeeId", employee.getId());
+                    result.put("employeeName", employee.getName());
+
+                    String failure = null;
+                    CTCDetails ctc = ctcByEmployee.get(employee.getId());
+                    if (heldEmployeeIds.contains(employee.getId())) {
+                        failure = "Cannot generate payslip: Employee has a payment hold";
+                    } else if (existingPayslipIds.contains(employee.getId())) {
+                        failure = "Payslip already exists for " + month + " " + year;
+                    } else if (ctc == null) {
+                        failure = "No CTC details found for this employee for the specified period.";
+                    }
+
+                    if (failure != null) {
+                        result.put("success", false);
+                        result.put("message", failure);
+                        chunkFailures++;
+                    } else {
+                        try {
+                            Payslip payslip = payslipCalculator.calculate(employee, ctc, month, year,
+                                    leavesUsedByEmployee.getOrDefault(employee.getId(), 0));
+                            payslips.add(payslip);
+                            notified.add(employee);
+                            result.put("success", true);
+                            result.put("message", "Payslip generated successfully");
+                            result.put("data", payslip);
+                        } catch (Exception e) {
+                            result.put("success", false);
+                            result.put("message", "Error generating payslip: " + e.getMessage());
+                            chunkFailures++;
+                        }
+                    }
+                    chunkResults.add(result);
+                }
+
+                final int failedInChunk = chunkFailures;
+                try {
+                    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                        insertPayslips(payslips);
+                        payslipNotificationService.enqueuePayslipsReady(notified, month, year, run.getRunId());
+                        payrollRunLedgerService.markChunkCommitted(run, chunk, payslips.size(), failedInChunk);
+                    });
+                    successCount += payslips.size();
+                    failCount += chunkFailures;
+                    storeDocuments(payslips, notified);
+                } catch (Exception e) {
+                    logger.log(Level.WARNING, "Payslip chunk " + chunk.getChunkIndex() + " of run " + run.getRunId() + " rolled back", e);
+                    payrollRunLedgerService.markChunkFailed(chunk, e.getMessage());
+                    for (Map<String, Object> result : chunkResults) {
+                        if (Boolean.TRUE.equals(result.get("success"))) {
+                            result.put("success", false);
+                            result.put("message", "Error generating payslip: " + e.getMessage());
+                            result.remove("data");
+                        }
+                    }
+                    failCount += chunkResults.size();
+                }
+                results.addAll(chunkResults);
+                if (listener != null) {
+                    listener.onChunkCompleted(chunkResults);
+                }
+            }
+
+            PayrollRun finished = payrollRunLedgerService.finishRun(run);
+            logger.info("Bulk payslip run " + finished.getRunId() + " for " + month + " " + year + " is " + finished.getStatus()
+                    + ": wrote " + successCount + " payslips, " + failCount + " failed");
+
+            response.put("success", true);
+            response.put("message", "Bulk payslip generation completed. Success: " + successCount + ", Failed: " + failCount);
+            response.put("runId", finished.getRunId());
+            response.put("runStatus", finished.getStatus());
+            response.put("results", results);
+
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Error generating bulk payslips: " + e.getMessage());
+        }
+
+        return response;
+    }
+
+    /**
+     * Counts the IDs of a sorted list that fall within an inclusive range.
+     */
+    private int countInRange(List<Long> sortedIds, long fromId, long toId) {
+        int count = 0;
+        for (Long id : sortedIds) {
+            if (id > toId) {
+                break;
+            }
+            if (id >= fromId) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Renders the documents of a committed chunk once, so month-end downloads just serve the stored
+     * files, and points the payslips' download links at them with one batch update. Runs only after
+     * the chunk's insert has committed, like single payslip generation, so a rolled-back chunk leaves
+     * no files behind. A payslip whose document cannot be stored keeps its render-on-demand link.
+     *
+     * @param payslips The committed payslips.
+     * @param employees The employee of each payslip, in the same order.
+     */
+    private void storeDocuments(List<Payslip> payslips, List<Employee> employees) {
+        List<Payslip> linked = new ArrayList<>(payslips.size());
+        for (int i = 0; i < payslips.size(); i++) {
+            Payslip payslip = payslips.get(i);
+            try {
+                Optional<String> storedLink = payslipDocumentStore.storeAndLink(payslipPdfService.documentFor(employees.get(i), payslip));
+                if (storedLink.isPresent()) {
+                    payslip.setDownloadLink(storedLink.get());
+                    linked.add(payslip);
+                }
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Could not store the payslip document of employee " + payslip.getEmployeeId(), e);
+            }
+        }
+        if (linked.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_DOWNLOAD_LINK_SQL, linked, BATCH_SIZE, (ps, payslip) -> {
+                ps.setString(1, payslip.getDownloadLink());
+                ps.setLong(2, payslip.getEmployeeId());
+                ps.setInt(3, payslip.getPeriod());
+            });
+        } catch (RuntimeException e) {
+            // The payslips are committed with their render-on-demand links, which still work
+            logger.log(Level.WARNING, "Could not link " + linked.size() + " stored payslip documents", e);
+        }
+    }
+
+    /**
+     * Writes the payslips with JDBC batch inserts, {@link #BATCH_SIZE} rows per round trip.
+     *
+     * @param payslips The payslips to insert.
+     */
+    private void insertPayslips(List<Payslip> payslips) {
+        if (payslips.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_PAYSLIP_SQL, payslips, BATCH_SIZE, (ps, payslip) -> {
+            ps.setLong(1, payslip.getEmployeeId());
+            ps.setString(2, payslip.getMonth());
+            ps.setInt(3, payslip.getYear());
+            ps.setInt(4, payslip.getPeriod());
+            ps.setBigDecimal(5, payslip.getNetPay());
+            ps.setBigDecimal(6, payslip.getDeductions());
+            ps.setTimestamp(7, payslip.getGeneratedOn());
+            ps.setString(8, payslip.getDownloadLink());
+            PayslipBreakdown breakdown = payslip.getBreakdown();
+            ps.setObject(9, breakdown.getCtcId(), Types.BIGINT);
+            ps.setBigDecimal(10, breakdown.getBasicPay());
+            ps.setBigDecimal(11, breakdown.getHraPay());
+            ps.setBigDecimal(12, breakdown.getDaPay());
+            ps.setBigDecimal(13, breakdown.getSpecialAllowancePay());
+            ps.setBigDecimal(14, breakdown.getOtherAllowancesPay());
+            ps.setBigDecimal(15, breakdown.getGrossPay());
+            ps.setBigDecimal(16, breakdown.getPfDeduction());
+            ps.setBigDecimal(17, breakdown.getGratuityDeduction());
+            ps.setBigDecimal(18, breakdown.getLeaveDeduction());
+        });
+    }
+
+    /**
+     * Keeps the most recent CTC record per employee.
+     * Relies on the records being ordered by employee and by effective date, newest first.
+     *
+     * @param records The active CTC records for the month.
+     * @return A map of employee ID to the CTC record in force for the month.
+     */
+    private Map<Long, CTCDetails> latestCtcByEmployee(List<CTCDetails> records) {
+        Map<Long, CTCDetails> ctcByEmployee = new HashMap<>();
+        for (CTCDetails ctc : records) {
+            ctcByEmployee.putIfAbsent(ctc.getEmployeeId(), ctc);
+        }
+        return ctcByEmployee;
+    }
+
+    /**
+     * Receives progress from a bulk run, e.g. to report it to a polling client.
+     */
+    public interface ProgressListener {
+
+        /**
+         * Called once the run has been registered in the ledger.
+         *
+         * @param runId The ID of the run in the payroll run ledger.
+         * @param employeesToProcess The number of employees in the chunks still to be processed.
+         */
+        void onStart(Long runId, int employeesToProcess);
+
+        /**
+         * Called after each chunk has committed or rolled back.
+         *
+         * @param chunkResults The per-employee results of the chunk.
+         */
+        void onChunkCompleted(List<Map<String, Object>> chunkResults);
+    }
+}
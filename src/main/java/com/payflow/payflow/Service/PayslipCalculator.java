@@ -0,0 +1,100 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.model.CTCDetails;
+import com.payflow.payflow.model.Employee;
+import com.payflow.payflow.model.PayPeriod;
+import com.payflow.payflow.model.Payslip;
+import com.payflow.payflow.model.PayslipBreakdown;
+import com.payflow.payflow.salary.Money;
+import com.payflow.payflow.salary.SalaryPlan;
+import com.payflow.payflow.salary.SalaryRules;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Calculates payslips with the compiled payslip salary plan (see {@link SalaryRules#componentBased()}).
+ * The input slots of the plan are resolved once, when the service is created, so calculating a
+ * payslip only fills an array and evaluates the plan. The calculation runs on fixed-point
+ * {@link Money} amounts; only the totals and deduction lines are converted to {@code BigDecimal}, for the payslip.
+ * Used by single and bulk payslip generation.
+ */
+@Service
+public class PayslipCalculator {
+
+    private final SalaryPlan plan;
+    private final WorkingDayCalendar workingDayCalendar;
+    private final int basic;
+    private final int hra;
+    private final int allowances;
+    private final int bonuses;
+    private final int pf;
+    private final int gratuity;
+    private final int workingDaysInMonth;
+    private final int leavesUsedThisYearSlot;
+    private final int pfDeduction;
+    private final int gratuityDeduction;
+    private final int leaveDeduction;
+
+    public PayslipCalculator(@Qualifier("payslipSalaryPlan") SalaryPlan plan, WorkingDayCalendar workingDayCalendar) {
+        this.plan = plan;
+        this.workingDayCalendar = workingDayCalendar;
+        this.basic = plan.slotIndex(SalaryRules.BASIC);
+        this.hra = plan.slotIndex(SalaryRules.HRA);
+        this.allowances = plan.slotIndex(SalaryRules.ALLOWANCES);
+        this.bonuses = plan.slotIndex(SalaryRules.BONUSES);
+        this.pf = plan.slotIndex(SalaryRules.PF);
+        this.gratuity = plan.slotIndex(SalaryRules.GRATUITY);
+        this.workingDaysInMonth = plan.slotIndex(SalaryRules.WORKING_DAYS_IN_MONTH);
+        this.leavesUsedThisYearSlot = plan.slotIndex(SalaryRules.LEAVES_USED_THIS_YEAR);
+        this.pfDeduction = plan.slotIndex(SalaryRules.PF_DEDUCTION);
+        this.gratuityDeduction = plan.slotIndex(SalaryRules.GRATUITY_DEDUCTION);
+        this.leaveDeduction = plan.slotIndex(SalaryRules.LEAVE_DEDUCTION);
+    }
+
+    /**
+     * Calculates the payslip for an employee from the CTC record in force for the given month.
+     * The returned payslip is not saved.
+     *
+     * @param employee The employee the payslip is for.
+     * @param ctc The CTC record active for the month.
+     * @param month The month of the payslip (e.g., "January"). Must already be validated.
+     * @param year The year of the payslip.
+     * @param leavesUsedThisYear The employee's approved leave days from January up to and including
+     *                           the payslip's month (see {@link LeaveUsageService#getApprovedDaysInYear}).
+     * @return An unsaved Payslip with net pay, deductions, the CTC breakdown and download link populated.
+     */
+    public Payslip calculate(Employee employee, CTCDetails ctc, String month, Integer year, int leavesUsedThisYear) {
+        YearMonth yearMonth = YearMonth.of(year, PayPeriod.parseMonth(month));
+
+        long[] inputs = plan.newInputs();
+        inputs[basic] = Money.of(ctc.getBasicSalary(), RoundingMode.HALF_UP);
+        inputs[hra] = Money.of(ctc.getHra(), RoundingMode.HALF_UP);
+        inputs[allowances] = Money.of(ctc.getAllowances(), RoundingMode.HALF_UP);
+        inputs[bonuses] = Money.of(ctc.getBonuses(), RoundingMode.HALF_UP);
+        inputs[pf] = Money.of(ctc.getPfContribution(), RoundingMode.HALF_UP);
+        inputs[gratuity] = Money.of(ctc.getGratuity(), RoundingMode.HALF_UP);
+        inputs[workingDaysInMonth] = Money.of(Math.max(1, workingDayCalendar.countWorkingDays(yearMonth)));
+        inputs[leavesUsedThisYearSlot] = Money.of(leavesUsedThisYear);
+        SalaryPlan.Result result = plan.evaluate(inputs);
+
+        Payslip payslip = new Payslip();
+        payslip.setEmployeeId(employee.getId());
+        payslip.setMonth(month);
+        payslip.setYear(year);
+        payslip.setPeriod(PayPeriod.key(yearMonth));
+        payslip.setNetPay(Money.toBigDecimal(result.getNetPay()));
+        payslip.setDeductions(Money.toBigDecimal(result.getTotalDeductions()));
+        payslip.setBreakdown(PayslipBreakdown.of(ctc, result.get(pfDeduction), result.get(gratuityDeduction),
+                result.get(leaveDeduction)));
+        payslip.setGeneratedOn(Timestamp.valueOf(LocalDateTime.now()));
+
+        // Default download link renders the document on demand; callers that store the document replace it
+        payslip.setDownloadLink("/api/payslip/download-pdf/" + employee.getId() + "/" + month + "/" + year);
+        return payslip;
+    }
+}
@@ -0,0 +1,131 @@
+package com.payflow.payflow.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store for rendered payslip documents on local disk.
+ * Documents are rendered once (normally during the month-end bulk run), named by the SHA-256
+ * of their bytes and written under {@code payflow.payslip.store.dir}, sharded by the first two
+ * hex digits of the hash. Identical documents are stored once, and a stored file never changes,
+ * so its hash doubles as a strong ETag.
+ */
+@Service
+public class PayslipDocumentStore {
+
+    private static final Logger logger = Logger.getLogger(PayslipDocumentStore.class.getName());
+
+    /**
+     * Path prefix of the download links that point at stored documents.
+     */
+    public static final String LINK_PREFIX = "/api/payslip/documents/";
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public PayslipDocumentStore(@Value("${payflow.payslip.store.dir:data/payslips}") String directory) {
+        this.root = Paths.get(directory).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Renders a payslip document into the store.
+     *
+     * @param document The document to render.
+     * @return The SHA-256 hash (lower-case hex) under which the document is stored.
+     * @throws IOException if the document cannot be written.
+     */
+    public String store(PayslipPdfService.PayslipDocument document) throws IOException {
+        Files.createDirectories(root);
+        Path temp = Files.createTempFile(root, "payslip-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (OutputStream out = new BufferedOutputStream(new DigestOutputStream(Files.newOutputStream(temp), digest))) {
+                PayslipPdfService.TEMPLATE.render(document.getValues(), out);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            Path target = pathFor(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Another writer stored the same document first; its bytes are identical
+                }
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Renders a payslip document into the store and returns the download link that serves it.
+     * Failures are logged and reported as an empty result, so callers can fall back to
+     * rendering on demand.
+     *
+     * @param document The document to render.
+     * @return An Optional containing the download link, or empty if the document could not be stored.
+     */
+    public Optional<String> storeAndLink(PayslipPdfService.PayslipDocument document) {
+        try {
+            return Optional.of(LINK_PREFIX + store(document));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not store payslip document " + document.getFileName(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Resolves a stored document by hash.
+     *
+     * @param hash The SHA-256 hash of the document.
+     * @return An Optional containing the file, or empty if the hash is malformed or nothing is stored under it.
+     */
+    public Optional<Path> resolve(String hash) {
+        if (hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathFor(hash);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Extracts the document hash from a download link created by {@link #storeAndLink}.
+     *
+     * @param downloadLink The download link stored on a payslip.
+     * @return An Optional containing the hash, or empty if the link does not point at the store.
+     */
+    public Optional<String> hashFromLink(String downloadLink) {
+        if (downloadLink == null || !downloadLink.startsWith(LINK_PREFIX)) {
+            return Optional.empty();
+        }
+        return Optional.of(downloadLink.substring(LINK_PREFIX.length()));
+    }
+
+    private Path pathFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + ".pdf");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
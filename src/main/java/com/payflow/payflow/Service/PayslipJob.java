@@ -0,0 +1,154 @@
+package com.payflow.payflow.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory state of an asynchronous bulk payslip job.
+ * Counters are updated by the background worker as chunks of the run commit and are read
+ * by status polls, so they are kept in atomics; per-employee results are appended in order.
+ */
+public class PayslipJob implements PayslipBulkService.ProgressListener {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private final String jobId;
+    private final String month;
+    private final Integer year;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile String status = STATUS_QUEUED;
+    private volatile String message;
+    private volatile Long runId;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private final List<Map<String, Object>> results = Collections.synchronizedList(new ArrayList<>());
+
+    public PayslipJob(String jobId, String month, Integer year) {
+        this.jobId = jobId;
+        this.month = month;
+        this.year = year;
+    }
+
+    @Override
+    public void onStart(Long runId, int employeesToProcess) {
+        this.runId = runId;
+        total.set(employeesToProcess);
+    }
+
+    @Override
+    public void onChunkCompleted(List<Map<String, Object>> chunkResults) {
+        for (Map<String, Object> result : chunkResults) {
+            // Keep the results list compact: the payslip itself can be fetched by employee and month
+            Map<String, Object> compact = new HashMap<>();
+            compact.put("employeeId", result.get("employeeId"));
+            compact.put("employeeName", result.get("employeeName"));
+            compact.put("success", result.get("success"));
+            compact.put("message", result.get("message"));
+            results.add(compact);
+
+            if (Boolean.TRUE.equals(result.get("success"))) {
+                succeeded.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+        }
+        processed.addAndGet(chunkResults.size());
+    }
+
+    void markRunning() {
+        startedAt = LocalDateTime.now();
+        status = STATUS_RUNNING;
+    }
+
+    void markFinished(boolean success, String message) {
+        this.message = message;
+        finishedAt = LocalDateTime.now();
+        status = success ? STATUS_COMPLETED : STATUS_FAILED;
+    }
+
+    /**
+     * Whether the job is still queued or running.
+     */
+    public boolean isActive() {
+        return STATUS_QUEUED.equals(status) || STATUS_RUNNING.equals(status);
+    }
+
+    /**
+     * Builds the status view returned to polling clients.
+     *
+     * @return A Map with the job state and progress counters.
+     */
+    public Map<String, Object> toStatus() {
+        Map<String, Object> view = new HashMap<>();
+        view.put("jobId", jobId);
+        view.put("month", month);
+        view.put("year", year);
+        view.put("status", status);
+        view.put("message", message);
+        view.put("runId", runId);
+        view.put("total", total.get());
+        view.put("processed", processed.get());
+        view.put("succeeded", succeeded.get());
+        view.put("failed", failed.get());
+        view.put("submittedAt", submittedAt);
+        view.put("startedAt", startedAt);
+        view.put("finishedAt", finishedAt);
+        return view;
+    }
+
+    /**
+     * Returns one page of the per-employee results collected so far.
+     *
+     * @param page The zero-based page number; negative values are treated as 0.
+     * @param size The page size; values below 1 are treated as 1.
+     * @return The results on the page; empty if the page is past the end.
+     */
+    public List<Map<String, Object>> getResults(int page, int size) {
+        int pageSize = Math.max(1, size);
+        synchronized (results) {
+            // Computed in long: a large client-supplied page would overflow an int offset
+            int from = (int) Math.min((long) Math.max(0, page) * pageSize, results.size());
+            int to = (int) Math.min((long) from + pageSize, results.size());
+            return new ArrayList<>(results.subList(from, to));
+        }
+    }
+
+    public int getResultCount() {
+        return results.size();
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+}
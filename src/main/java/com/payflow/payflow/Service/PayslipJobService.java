@@ -0,0 +1,130 @@
+package com.payflow.payflow.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service class for running bulk payslip generation in the background.
+ * A submitted job returns its ID right away; the run itself executes on a small dedicated
+ * executor and clients poll for progress and page through the results instead of holding
+ * an HTTP request open for the whole month-end run.
+ */
+@Service
+public class PayslipJobService {
+
+    private static final Logger logger = Logger.getLogger(PayslipJobService.class.getName());
+
+    @Autowired
+    private PayslipService payslipService;
+
+    /**
+     * How long finished jobs are kept for polling before they are evicted.
+     */
+    @Value("${payflow.payslip.jobs.retention-minutes:1440}")
+    private long retentionMinutes;
+
+    private final Map<String, PayslipJob> jobs = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor;
+
+    /**
+     * @param threads The number of bulk jobs that may run at the same time.
+     */
+    public PayslipJobService(@Value("${payflow.payslip.jobs.threads:2}") int threads) {
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "payslip-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submits a bulk payslip job for a month and year.
+     * If a job for the same month and year is still queued or running, that job is returned instead.
+     *
+     * @param month The month for which to generate payslips (e.g., "January").
+     * @param year The year for which to generate payslips.
+     * @return A Map containing the success status and, on success, the job ID and its status.
+     */
+    public Map<String, Object> submitBulkJob(String month, Integer year) {
+        Map<String, Object> response = new HashMap<>();
+
+        if (!payslipService.isValidMonth(month)) {
+            response.put("success", false);
+            response.put("message", "Invalid month: " + month);
+            return response;
+        }
+
+        synchronized (jobs) {
+            Optional<PayslipJob> active = jobs.values().stream()
+                    .filter(job -> job.isActive() && job.getMonth().equals(month) && job.getYear().equals(year))
+                    .findFirst();
+            if (active.isPresent()) {
+                response.put("success", true);
+                response.put("message", "A payslip job for " + month + " " + year + " is already in progress");
+                response.put("jobId", active.get().getJobId());
+                response.put("job", active.get().toStatus());
+                return response;
+            }
+
+            PayslipJob job = new PayslipJob(UUID.randomUUID().toString(), month, year);
+            jobs.put(job.getJobId(), job);
+            executor.submit(() -> runJob(job));
+
+            response.put("success", true);
+            response.put("message", "Payslip job submitted for " + month + " " + year);
+            response.put("jobId", job.getJobId());
+            response.put("job", job.toStatus());
+        }
+        return response;
+    }
+
+    /**
+     * Get a job by ID.
+     *
+     * @param jobId The ID of the job.
+     * @return An Optional containing the job, or empty if it is unknown or has been evicted.
+     */
+    public Optional<PayslipJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private void runJob(PayslipJob job) {
+        job.markRunning();
+        try {
+            Map<String, Object> result = payslipService.generateBulkPayslips(job.getMonth(), job.getYear(), job);
+            job.markFinished(Boolean.TRUE.equals(result.get("success")), (String) result.get("message"));
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Payslip job " + job.getJobId() + " failed", e);
+            job.markFinished(false, "Error generating bulk payslips: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Evicts finished jobs older than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${payflow.payslip.jobs.cleanup-interval-ms:600000}")
+    public void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> !job.isActive() && job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,142 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.mail.MessageTemplate;
+import com.payflow.payflow.model.Employee;
+import com.payflow.payflow.model.Payslip;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Service class for "your payslip is ready" notifications.
+ * Messages are rendered from precompiled templates and written to the notification outbox in the
+ * transaction that saves the payslips. A bulk run writes the notifications of each chunk with one
+ * JDBC batch insert; the outbox dispatcher then fans them out through the {@link MailPipeline},
+ * whose workers keep a few SMTP connections open and send at no more than
+ * {@code payflow.mail.max-per-second}.
+ */
+@Service
+public class PayslipNotificationService {
+
+    private static final Logger logger = Logger.getLogger(PayslipNotificationService.class.getName());
+
+    static final MessageTemplate SUBJECT = MessageTemplate.compile("Your payslip for {month} {year} is ready");
+
+    static final MessageTemplate BODY = MessageTemplate.compile(
+            "Dear {name},\n\nYour payslip for {month} {year} is now available in PayFlow.\n\nRegards,\nPayFlow HR System");
+
+    private static final int SUBJECT_MONTH = SUBJECT.slotIndex("month");
+    private static final int SUBJECT_YEAR = SUBJECT.slotIndex("year");
+    private static final int BODY_NAME = BODY.slotIndex("name");
+    private static final int BODY_MONTH = BODY.slotIndex("month");
+    private static final int BODY_YEAR = BODY.slotIndex("year");
+
+    /**
+     * Aggregate type of notifications written by a bulk run; the aggregate ID is the run ID.
+     */
+    public static final String AGGREGATE_PAYROLL_RUN = "PAYROLL_RUN";
+
+    /**
+     * Aggregate type of notifications for a single payslip; the aggregate ID is the payslip ID.
+     */
+    public static final String AGGREGATE_PAYSLIP = "PAYSLIP";
+
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO notification_outbox (channel, recipient, subject, body, aggregate_type, aggregate_id, " +
+            "status, attempts, next_attempt_at, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+
+    // Number of rows sent to the database per JDBC batch
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private NotificationOutboxService notificationOutboxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Renders the subject line of a payslip-ready notification.
+     */
+    static String renderSubject(String month, Integer year) {
+        String[] values = new String[SUBJECT.slotCount()];
+        values[SUBJECT_MONTH] = month;
+        values[SUBJECT_YEAR] = String.valueOf(year);
+        return SUBJECT.render(values);
+    }
+
+    /**
+     * Renders the body of a payslip-ready notification.
+     */
+    static String renderBody(String name, String month, Integer year) {
+        String[] values = new String[BODY.slotCount()];
+        values[BODY_NAME] = name;
+        values[BODY_MONTH] = month;
+        values[BODY_YEAR] = String.valueOf(year);
+        return BODY.render(values);
+    }
+
+    /**
+     * Queues the payslip-ready notification for one payslip. Must be called inside the
+     * transaction that saves the payslip.
+     *
+     * @param employee The employee the payslip belongs to.
+     * @param payslip The saved payslip.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueuePayslipReady(Employee employee, Payslip payslip) {
+        notificationOutboxService.enqueueEmail(employee.getEmail(),
+                renderSubject(payslip.getMonth(), payslip.getYear()),
+                renderBody(employee.getName(), payslip.getMonth(), payslip.getYear()),
+                AGGREGATE_PAYSLIP, payslip.getPayslipId());
+    }
+
+    /**
+     * Queues the payslip-ready notifications for a chunk of a bulk run with JDBC batch inserts.
+     * Must be called inside the transaction that inserts the chunk's payslips. Employees without
+     * an email address are skipped.
+     *
+     * @param employees The employees whose payslips were generated.
+     * @param month The month of the payslips (e.g., "January").
+     * @param year The year of the payslips.
+     * @param runId The ID of the bulk run in the payroll run ledger.
+     * @return The number of notifications queued.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int enqueuePayslipsReady(List<Employee> employees, String month, Integer year, Long runId) {
+        List<Employee> recipients = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            if (employee.getEmail() == null || employee.getEmail().trim().isEmpty()) {
+                logger.warning("Not queuing payslip notification for employee " + employee.getId()
+                        + ": recipient email is null or empty");
+            } else {
+                recipients.add(employee);
+            }
+        }
+        if (recipients.isEmpty()) {
+            return 0;
+        }
+
+        // The subject is the same for the whole run; only the body is rendered per employee
+        String subject = renderSubject(month, year);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, recipients, BATCH_SIZE, (ps, employee) -> {
+            ps.setString(1, NotificationOutboxService.CHANNEL_EMAIL);
+            ps.setString(2, employee.getEmail());
+            ps.setString(3, subject);
+            ps.setString(4, renderBody(employee.getName(), month, year));
+            ps.setString(5, AGGREGATE_PAYROLL_RUN);
+            ps.setLong(6, runId);
+            ps.setString(7, NotificationOutboxService.STATUS_PENDING);
+            ps.setTimestamp(8, now);
+            ps.setTimestamp(9, now);
+        });
+        return recipients.size();
+    }
+}
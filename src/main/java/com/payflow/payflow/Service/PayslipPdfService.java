@@ -0,0 +1,241 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.model.CTCDetails;
+import com.payflow.payflow.model.Employee;
+import com.payflow.payflow.model.PayPeriod;
+import com.payflow.payflow.model.Payslip;
+import com.payflow.payflow.model.PayslipBreakdown;
+import com.payflow.payflow.pdf.PdfTemplate;
+import com.payflow.payflow.repository.EmployeeRepository;
+import com.payflow.payflow.repository.PayslipRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Month;
+import java.util.Optional;
+
+/**
+ * Service class for rendering payslips as PDF documents.
+ * The payslip layout is compiled once into a {@link PdfTemplate} when the service is created;
+ * each download only looks up the data and streams the filled-in template to the response.
+ */
+@Service
+public class PayslipPdfService {
+
+    /**
+     * The compiled payslip layout, shared by all renders.
+     */
+    static final PdfTemplate TEMPLATE = compileTemplate();
+
+    private static final int MONTH = TEMPLATE.slotIndex("month");
+    private static final int EMPLOYEE_NAME = TEMPLATE.slotIndex("employeeName");
+    private static final int EMPLOYEE_ID = TEMPLATE.slotIndex("employeeId");
+    private static final int BASIC = TEMPLATE.slotIndex("basic");
+    private static final int HRA = TEMPLATE.slotIndex("hra");
+    private static final int DA = TEMPLATE.slotIndex("da");
+    private static final int SPECIAL_ALLOWANCE = TEMPLATE.slotIndex("specialAllowance");
+    private static final int OTHER_ALLOWANCES = TEMPLATE.slotIndex("otherAllowances");
+    private static final int GROSS = TEMPLATE.slotIndex("gross");
+    private static final int PF = TEMPLATE.slotIndex("pf");
+    private static final int GRATUITY = TEMPLATE.slotIndex("gratuity");
+    private static final int LEAVE_DEDUCTIONS = TEMPLATE.slotIndex("leaveDeductions");
+    private static final int TOTAL_DEDUCTIONS = TEMPLATE.slotIndex("totalDeductions");
+    private static final int NET_PAY = TEMPLATE.slotIndex("netPay");
+
+    @Autowired
+    private PayslipRepository payslipRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CtcTimelineCache ctcTimelineCache;
+
+    /**
+     * Find the payslip of an employee for a month and year.
+     *
+     * @param employeeId The ID of the employee.
+     * @param month The month of the payslip (e.g., "January").
+     * @param year The year of the payslip.
+     * @return An Optional containing the payslip, or empty if none exists.
+     */
+    public Optional<Payslip> findPayslip(Long employeeId, String month, Integer year) {
+        Month parsedMonth = PayPeriod.parseMonth(month);
+        if (parsedMonth == null || year == null) {
+            return Optional.empty();
+        }
+        return payslipRepository.findByEmployeeIdAndPeriod(employeeId, PayPeriod.key(year, parsedMonth));
+    }
+
+    /**
+     * Loads the employee a payslip document needs and resolves the slot values of the template.
+     * The amounts come from the breakdown stored with the payslip; only payslips generated before
+     * the breakdown was stored fall back to the CTC in force for their period.
+     *
+     * @param payslip The payslip to render.
+     * @return An Optional containing the document, or empty if the employee (or, for an old payslip, the CTC) is missing.
+     */
+    public Optional<PayslipDocument> loadDocument(Payslip payslip) {
+        Optional<Employee> employeeOpt = employeeRepository.findById(payslip.getEmployeeId());
+        if (!employeeOpt.isPresent()) {
+            return Optional.empty();
+        }
+        if (payslip.getBreakdown() != null) {
+            return Optional.of(documentFor(employeeOpt.get(), payslip));
+        }
+        Optional<CTCDetails> ctcOpt = ctcTimelineCache.findInForce(payslip.getEmployeeId(), PayPeriod.toYearMonth(payslip.getPeriod()));
+        if (!ctcOpt.isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.of(documentFor(employeeOpt.get(), payslip, ctcOpt.get()));
+    }
+
+    /**
+     * Builds the document for a payslip from its stored breakdown, without any query.
+     *
+     * @param employee The employee the payslip belongs to.
+     * @param payslip The payslip; must have a breakdown.
+     * @return The document, ready to be rendered or stored.
+     * @throws IllegalStateException if the payslip has no stored breakdown.
+     */
+    public PayslipDocument documentFor(Employee employee, Payslip payslip) {
+        return documentFor(employee, payslip, null);
+    }
+
+    /**
+     * Builds the document for a payslip from data the caller already holds, without any query.
+     *
+     * @param employee The employee the payslip belongs to.
+     * @param payslip The payslip.
+     * @param ctc The CTC record to take the amounts from if the payslip has no stored breakdown; may be null otherwise.
+     * @return The document, ready to be rendered or stored.
+     * @throws IllegalStateException if the payslip has neither a stored breakdown nor a CTC record.
+     */
+    public PayslipDocument documentFor(Employee employee, Payslip payslip, CTCDetails ctc) {
+        PayslipBreakdown breakdown = payslip.getBreakdown();
+        if (breakdown == null) {
+            if (ctc == null) {
+                throw new IllegalStateException("Payslip " + payslip.getPayslipId() + " has no stored breakdown and no CTC record");
+            }
+            breakdown = PayslipBreakdown.earningsOf(ctc);
+        }
+        return new PayslipDocument(fileName(employee, payslip.getMonth(), payslip.getYear()),
+                slotValues(employee, payslip, breakdown, payslip.getMonth(), payslip.getYear()));
+    }
+
+    /**
+     * Returns the download file name of an employee's payslip.
+     */
+    public static String fileName(Employee employee, String month, Integer year) {
+        return fileName(employee.getId(), month, year);
+    }
+
+    /**
+     * Returns the download file name of an employee's payslip. Every download path uses this
+     * format; it is keyed by employee ID, so names are unique within a month's archive.
+     */
+    public static String fileName(Long employeeId, String month, Integer year) {
+        return "payslip_" + employeeId + "_" + month + "_" + year + ".pdf";
+    }
+
+    /**
+     * Streams a payslip document as PDF to the given output. The output is not closed.
+     *
+     * @param document The document to render.
+     * @param out The stream to write to.
+     * @throws IOException if writing to the stream fails.
+     */
+    public void render(PayslipDocument document, OutputStream out) throws IOException {
+        TEMPLATE.render(document.getValues(), out);
+    }
+
+    /**
+     * Resolves the template slot values for a payslip from its breakdown. Each deduction line is
+     * printed on its own; a payslip generated before the lines were stored shows only its total.
+     */
+    static String[] slotValues(Employee employee, Payslip payslip, PayslipBreakdown breakdown, String month, Integer year) {
+        String[] values = new String[TEMPLATE.slotCount()];
+        values[MONTH] = "PAYSLIP FOR " + month.toUpperCase() + " " + year;
+        values[EMPLOYEE_NAME] = employee.getName();
+        values[EMPLOYEE_ID] = String.valueOf(employee.getId());
+        values[BASIC] = amount(breakdown.getBasicPay());
+        values[HRA] = amount(breakdown.getHraPay());
+        values[DA] = amount(breakdown.getDaPay());
+        values[SPECIAL_ALLOWANCE] = amount(breakdown.getSpecialAllowancePay());
+        values[OTHER_ALLOWANCES] = amount(breakdown.getOtherAllowancesPay());
+        values[GROSS] = amount(breakdown.getGrossPay());
+        values[PF] = deductionLine(breakdown.getPfDeduction());
+        values[GRATUITY] = deductionLine(breakdown.getGratuityDeduction());
+        values[LEAVE_DEDUCTIONS] = deductionLine(breakdown.getLeaveDeduction());
+        values[TOTAL_DEDUCTIONS] = amount(payslip.getDeductions());
+        values[NET_PAY] = amount(payslip.getNetPay());
+        return values;
+    }
+
+    private static String amount(BigDecimal value) {
+        return value == null ? "0.00" : value.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static String deductionLine(BigDecimal value) {
+        return value == null ? "-" : amount(value);
+    }
+
+    private static PdfTemplate compileTemplate() {
+        int left = 50;
+        int value = 330;
+        return PdfTemplate.builder(595, 842)
+                .text(PdfTemplate.FONT_BOLD, 20, left, 790, "PAYFLOW")
+                .slot(PdfTemplate.FONT_BOLD, 13, left, 765, "month")
+                .rule(left, 545, 752)
+                .field(11, left, value, 730, "Employee Name:", "employeeName")
+                .field(11, left, value, 712, "Employee ID:", "employeeId")
+                .rule(left, 545, 698)
+                .text(PdfTemplate.FONT_BOLD, 12, left, 678, "EARNINGS")
+                .field(11, left, value, 658, "Basic Salary", "basic")
+                .field(11, left, value, 640, "HRA", "hra")
+                .field(11, left, value, 622, "DA", "da")
+                .field(11, left, value, 604, "Special Allowance", "specialAllowance")
+                .field(11, left, value, 586, "Other Allowances", "otherAllowances")
+                .text(PdfTemplate.FONT_BOLD, 11, left, 564, "Gross Pay")
+                .slot(PdfTemplate.FONT_BOLD, 11, value, 564, "gross")
+                .rule(left, 545, 550)
+                .text(PdfTemplate.FONT_BOLD, 12, left, 530, "DEDUCTIONS")
+                .field(11, left, value, 510, "PF Contribution", "pf")
+                .field(11, left, value, 492, "Gratuity", "gratuity")
+                .field(11, left, value, 474, "Leave Deductions", "leaveDeductions")
+                .text(PdfTemplate.FONT_BOLD, 11, left, 452, "Total Deductions")
+                .slot(PdfTemplate.FONT_BOLD, 11, value, 452, "totalDeductions")
+                .rule(left, 545, 438)
+                .text(PdfTemplate.FONT_BOLD, 14, left, 416, "NET PAY")
+                .slot(PdfTemplate.FONT_BOLD, 14, value, 416, "netPay")
+                .text(PdfTemplate.FONT_REGULAR, 9, left, 60,
+                        "This is a computer-generated payslip and does not require a signature.")
+                .compile();
+    }
+
+    /**
+     * A payslip ready to be rendered: its download file name and the resolved template slot values.
+     */
+    public static class PayslipDocument {
+
+        private final String fileName;
+        private final String[] values;
+
+        public PayslipDocument(String fileName, String[] values) {
+            this.fileName = fileName;
+            this.values = values;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        String[] getValues() {
+            return values;
+        }
+    }
+}
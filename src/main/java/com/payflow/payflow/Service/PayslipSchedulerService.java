@@ -1,5 +1,6 @@
 package com.payflow.payflow.Service;
 
+import com.payflow.payflow.model.PayPeriod;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -35,12 +36,9 @@ public class PayslipSchedulerService {
 
         // Get the month and year for which we're generating payslips
         // (the current month that's ending)
-        String month = currentDate.getMonth().toString();
+        String month = PayPeriod.monthName(currentDate.getMonth());
         int year = currentDate.getYear();
 
-        // Convert month to title case (e.g., "JANUARY" to "January")
-        month = month.substring(0, 1) + month.substring(1).toLowerCase();
-
         logger.info("Starting automatic payslip generation for " + month + " " + year);
 
         // Generate payslips for all employees
@@ -2,23 +2,22 @@ package com.payflow.payflow.Service;
 
 import com.payflow.payflow.model.CTCDetails;
 import com.payflow.payflow.model.Employee;
+import com.payflow.payflow.model.PayPeriod;
 import com.payflow.payflow.model.Payslip;
-import com.payflow.payflow.repository.CTCDetailsRepository;
 import com.payflow.payflow.repository.EmployeeRepository;
 import com.payflow.payflow.repository.PayslipRepository;
 import com.payflow.payflow.Service.PaymentHoldService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.sql.Timestamp;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
@@ -36,16 +35,37 @@ public class PayslipService {
     private EmployeeRepository employeeRepository;
 
     @Autowired
-    private CTCDetailsRepository ctcDetailsRepository;
+    private CtcTimelineCache ctcTimelineCache;
+
+    @Autowired
+    private PayslipCalculator payslipCalculator;
+
+    @Autowired
+    private LeaveUsageService leaveUsageService;
 
     @Autowired
     private PaymentHoldService paymentHoldService;
 
+    @Autowired
+    private PayslipBulkService payslipBulkService;
+
+    @Autowired
+    private PayslipPdfService payslipPdfService;
+
+    @Autowired
+    private PayslipDocumentStore payslipDocumentStore;
+
+    @Autowired
+    private PayslipNotificationService payslipNotificationService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     // Month names for validation and display
-    private static final List<String> VALID_MONTHS = Arrays.asList(
-            "January", "February", "March", "April", "May", "June",
-            "July", "August", "September", "October", "November", "December"
-    );
+    private static final List<String> VALID_MONTHS = PayPeriod.MONTH_NAMES;
+
+    // Unique key that rejects a second payslip for the same employee and period (V11)
+    private static final String PAYSLIP_UNIQUE_KEY = "uk_payslip_employee_period";
 
     /**
      * Generates a single payslip for a specified employee, month, and year.
@@ -82,92 +102,55 @@ public class PayslipService {
             String month = (String) payload.get("month");
             Integer year = Integer.parseInt(payload.get("year").toString());
 
-            if (!VALID_MONTHS.contains(month)) {
+            if (!PayPeriod.isMonthName(month)) {
                 response.put("success", false);
                 response.put("message", "Invalid month. Must be one of: " + String.join(", ", VALID_MONTHS));
                 return response;
             }
 
-            // Check if payslip already exists for this month/year
-            Optional<Payslip> existingPayslip = payslipRepository.findByEmployeeIdAndMonthAndYear(employeeId, month, year);
-            if (existingPayslip.isPresent()) {
-                response.put("success", false);
-                response.put("message", "Payslip already exists for " + month + " " + year);
-                return response;
-            }
-
             // Get the applicable CTC for this month/year
-            YearMonth yearMonth = YearMonth.of(year, VALID_MONTHS.indexOf(month) + 1);
+            YearMonth yearMonth = YearMonth.of(year, PayPeriod.parseMonth(month));
             LocalDate payslipDate = yearMonth.atDay(1);
             
-            // Fixed CTC lookup: Find CTC records that are effective for the entire month
-            // We need to check if the CTC is effective for any part of the month
-            LocalDate monthStart = yearMonth.atDay(1);
-            LocalDate monthEnd = yearMonth.atEndOfMonth();
-            
-            List<CTCDetails> ctcRecords = ctcDetailsRepository.findActiveRecordsByEmployeeIdAndDateRange(
-                employeeId, monthStart, monthEnd);
-            
-            if (ctcRecords.isEmpty()) {
+            // The CTC record in force for the month, from the cached CTC timeline
+            Optional<CTCDetails> ctcOpt = ctcTimelineCache.findInForce(employeeId, yearMonth);
+            if (!ctcOpt.isPresent()) {
                 response.put("success", false);
                 response.put("message", "No CTC details found for this employee for the specified period.");
                 return response;
             }
-            CTCDetails ctc = ctcRecords.get(0); // Get the most recent active record
-
-            // Calculate monthly gross salary based on the individual CTC components
-            BigDecimal monthlyGrossSalary = ctc.getBasicSalary()
-                    .add(ctc.getHra())
-                    .add(ctc.getAllowances())
-                    .add(ctc.getBonuses())
-                    .add(ctc.getPfContribution()); // PF is an employer contribution but is part of Gross in the provided example
-                    // In a real scenario, this PF would not be included in the gross, but we're following the user's data.
-
-            // Calculate deductions
-            BigDecimal totalDeductions = BigDecimal.ZERO;
-            
-            // Employee contributions are actual deductions
-            BigDecimal employeePfContribution = ctc.getPfContribution();
-            BigDecimal employeeGratuity = ctc.getGratuity();
-            
-            BigDecimal leaveDeduction = BigDecimal.ZERO;
-
-            // Handle excess leave deduction separately
-            int leavesUsedThisMonth = employee.getLeavesUsedThisMonth() != null ? employee.getLeavesUsedThisMonth() : 0;
-            int totalLeavesUsedThisYear = employee.getTotalLeavesUsedThisYear() != null ? employee.getTotalLeavesUsedThisYear() : 0;
-            final int ANNUAL_LEAVE_LIMIT = 12;
-
-            if (totalLeavesUsedThisYear > ANNUAL_LEAVE_LIMIT) {
-                int excessLeaves = totalLeavesUsedThisYear - ANNUAL_LEAVE_LIMIT;
-
-                // Correctly calculate the number of days in the month to get the daily rate
-                YearMonth ym = YearMonth.of(year, VALID_MONTHS.indexOf(month) + 1);
-                BigDecimal daysInMonth = BigDecimal.valueOf(ym.lengthOfMonth());
-                BigDecimal dailySalary = monthlyGrossSalary.divide(daysInMonth, 2, RoundingMode.HALF_UP);
-                leaveDeduction = dailySalary.multiply(BigDecimal.valueOf(excessLeaves));
+            CTCDetails ctc = ctcOpt.get();
+
+            // Calculate net pay and deductions from the CTC in force and the leave used this year
+            int leavesUsedThisYear = leaveUsageService.getApprovedDaysInYear(employeeId, PayPeriod.key(yearMonth));
+            Payslip payslip = payslipCalculator.calculate(employee, ctc, month, year, leavesUsedThisYear);
+
+            // Save the payslip and queue the employee's notification in the same transaction.
+            // The unique (employee_id, period) constraint rejects a payslip that already exists,
+            // including one inserted concurrently, without a separate lookup first.
+            Payslip savedPayslip;
+            try {
+                savedPayslip = new TransactionTemplate(transactionManager).execute(status -> {
+                    Payslip saved = payslipRepository.saveAndFlush(payslip);
+                    payslipNotificationService.enqueuePayslipReady(employee, saved);
+                    return saved;
+                });
+            } catch (DataIntegrityViolationException e) {
+                if (!isDuplicatePayslip(e)) {
+                    throw e;
+                }
+                response.put("success", false);
+                response.put("message", "Payslip already exists for " + month + " " + year);
+                return response;
             }
 
-            // Sum up all deductions
-            totalDeductions = employeePfContribution.add(employeeGratuity).add(leaveDeduction);
-
-            // Calculate net pay
-            BigDecimal netPay = monthlyGrossSalary.subtract(totalDeductions);
-
-            // Create new payslip
-            Payslip payslip = new Payslip();
-            payslip.setEmployeeId(employeeId);
-            payslip.setMonth(month);
-            payslip.setYear(year);
-            payslip.setNetPay(netPay);
-            payslip.setDeductions(totalDeductions);
-            payslip.setGeneratedOn(Timestamp.valueOf(LocalDateTime.now()));
-
-            // Generate download link (this would be replaced with actual PDF generation in a real system)
-            String downloadLink = "/api/payslip/download-pdf/" + employeeId + "/" + month + "/" + year;
-            payslip.setDownloadLink(downloadLink);
-
-            // Save the payslip
-            Payslip savedPayslip = payslipRepository.save(payslip);
+            // Render the document only once the payslip exists, so a rejected duplicate leaves no file behind;
+            // if storing fails, the payslip keeps its render-on-demand link
+            Optional<String> storedLink = payslipDocumentStore.storeAndLink(payslipPdfService.documentFor(employee, savedPayslip));
+            if (storedLink.isPresent()) {
+                savedPayslip.setDownloadLink(storedLink.get());
+                savedPayslip = payslipRepository.save(savedPayslip);
+            }
 
             response.put("success", true);
             response.put("message", "Payslip generated successfully");
@@ -181,73 +164,83 @@ public class PayslipService {
         return response;
     }
 
+    /**
+     * Returns true if a constraint violation is the unique (employee_id, period) key of payslips,
+     * rather than e.g. a NOT NULL or foreign key violation.
+     */
+    private static boolean isDuplicatePayslip(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase().endsWith(PAYSLIP_UNIQUE_KEY);
+            }
+        }
+        // No constraint name was extracted; MySQL names the key in the message
+        return e.getMostSpecificCause().getMessage() != null
+                && e.getMostSpecificCause().getMessage().contains(PAYSLIP_UNIQUE_KEY);
+    }
+
     /**
      * Generates payslips in bulk for all active employees for a specific month and year.
-     * It iterates through the list of employees and calls the generatePayslip method for each.
+     * The work is delegated to {@link PayslipBulkService}, which loads everything it needs
+     * in a handful of set-based queries and writes the payslips with JDBC batch inserts.
      *
      * @param month The month for which to generate payslips.
      * @param year The year for which to generate payslips.
      * @return A Map containing the overall success status, a summary message, and a list of individual results.
      */
     public Map<String, Object> generateBulkPayslips(String month, Integer year) {
-        Map<String, Object> response = new HashMap<>();
-        List<Map<String, Object>> results = new ArrayList<>();
-
-        try {
-            // Validate month
-            if (!VALID_MONTHS.contains(month)) {
-                response.put("success", false);
-                response.put("message", "Invalid month. Must be one of: " + String.join(", ", VALID_MONTHS));
-                return response;
-            }
-
-            // Get all active employees
-            List<Employee> employees = employeeRepository.findAll();
-            int successCount = 0;
-            int failCount = 0;
-
-            for (Employee employee : employees) {
-                // Skip inactive employees
-                if (employee.getStatus() == null || !employee.getStatus().equalsIgnoreCase("ACTIVE")) {
-                    continue;
-                }
-
-                // Generate payslip for each employee
-                Map<String, Object> payload = new HashMap<>();
-                payload.put("employeeId", employee.getId());
-                payload.put("month", month);
-                payload.put("year", year);
-
-                Map<String, Object> result = generatePayslip(payload);
-                result.put("employeeName", employee.getName());
-                results.add(result);
-
-                if ((Boolean) result.get("success")) {
-                    successCount++;
-                } else {
-                    failCount++;
-                }
-            }
-
-            response.put("success", true);
-            response.put("message", "Bulk payslip generation completed. Success: " + successCount + ", Failed: " + failCount);
-            response.put("results", results);
+        return generateBulkPayslips(month, year, null);
+    }
 
-        } catch (Exception e) {
+    /**
+     * Generates payslips in bulk for all active employees, reporting progress to a listener.
+     *
+     * @param month The month for which to generate payslips.
+     * @param year The year for which to generate payslips.
+     * @param listener Receives progress as the run advances; may be null.
+     * @return A Map containing the overall success status, a summary message, and a list of individual results.
+     */
+    public Map<String, Object> generateBulkPayslips(String month, Integer year, PayslipBulkService.ProgressListener listener) {
+        // Validate month
+        if (!isValidMonth(month)) {
+            Map<String, Object> response = new HashMap<>();
             response.put("success", false);
-            response.put("message", "Error generating bulk payslips: " + e.getMessage());
+            response.put("message", "Invalid month. Must be one of: " + String.join(", ", VALID_MONTHS));
+            return response;
         }
 
-        return response;
+        return payslipBulkService.generateBulkPayslips(month, year, listener);
     }
 
     /**
-     * Retrieves all payslips for a specific employee, sorted by year and month in descending order.
+     * Checks whether a month name is one of the supported month names (e.g., "January").
+     *
+     * @param month The month name to check.
+     * @return true if the month is valid, false otherwise.
+     */
+    public boolean isValidMonth(String month) {
+        return PayPeriod.isMonthName(month);
+    }
+
+    /**
+     * Retrieves all payslips for a specific employee, newest period first.
      *
      * @param employeeId The ID of the employee.
      * @return A Map containing the success status and a list of payslips for the employee.
      */
     public Map<String, Object> getEmployeePayslips(Long employeeId) {
+        return getEmployeePayslips(employeeId, null);
+    }
+
+    /**
+     * Retrieves the most recent payslips of an employee, newest period first.
+     * Read as a range scan of the (employee_id, period) index.
+     *
+     * @param employeeId The ID of the employee.
+     * @param last The number of most recent payslips to return, or null for all of them.
+     * @return A Map containing the success status and a list of payslips for the employee.
+     */
+    public Map<String, Object> getEmployeePayslips(Long employeeId, Integer last) {
         Map<String, Object> response = new HashMap<>();
 
         try {
@@ -260,7 +253,9 @@ public class PayslipService {
             }
 
             // Get payslips
-            List<Payslip> payslips = payslipRepository.findByEmployeeIdOrderByYearDescMonthDesc(employeeId);
+            List<Payslip> payslips = last == null
+                    ? payslipRepository.findByEmployeeIdOrderByPeriodDesc(employeeId)
+                    : payslipRepository.findByEmployeeIdOrderByPeriodDesc(employeeId, Limit.of(Math.max(1, last)));
 
             response.put("success", true);
             response.put("data", payslips);
@@ -286,14 +281,14 @@ public class PayslipService {
 
         try {
             // Validate month
-            if (!VALID_MONTHS.contains(month)) {
+            if (!PayPeriod.isMonthName(month)) {
                 response.put("success", false);
                 response.put("message", "Invalid month. Must be one of: " + String.join(", ", VALID_MONTHS));
                 return response;
             }
 
             // Find the payslip
-            Optional<Payslip> payslipOpt = payslipRepository.findByEmployeeIdAndMonthAndYear(employeeId, month, year);
+            Optional<Payslip> payslipOpt = payslipRepository.findByEmployeeIdAndPeriod(employeeId, PayPeriod.key(year, month));
 
             if (payslipOpt.isPresent()) {
                 response.put("success", true);
@@ -310,20 +305,4 @@ public class PayslipService {
 
         return response;
     }
-
-    /**
-     * Helper method to count the number of working days (Monday-Friday) in a given month and year.
-     * @param year The year.
-     * @param month The month (1-12).
-     * @return The number of working days.
-     */
-    private long countWorkingDays(int year, int month) {
-        YearMonth yearMonth = YearMonth.of(year, month);
-        LocalDate startOfMonth = yearMonth.atDay(1);
-        LocalDate endOfMonth = yearMonth.atEndOfMonth();
-
-        return startOfMonth.datesUntil(endOfMonth.plusDays(1))
-                .filter(date -> date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY)
-                .count();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,114 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cached index of the reporting hierarchy: each manager's direct reports and each employee's manager.
+ * The whole hierarchy is loaded with one query selecting only employee and manager IDs, and kept as an
+ * immutable snapshot, so manager lookups on hot paths (leave submission, team views) issue no query.
+ *
+ * {@link EmployeeService} invalidates the snapshot when it assigns an employee to a manager or creates
+ * an employee. The snapshot also expires after {@code payflow.hierarchy.ttl-seconds}, so changes made
+ * through another node are picked up.
+ */
+@Service
+public class ReportingHierarchy {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    /**
+     * How long a loaded snapshot is used before it is read from the database again.
+     */
+    @Value("${payflow.hierarchy.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private volatile Snapshot snapshot;
+
+    // Incremented by every invalidation; a load that overlapped one is not cached, as it may have read stale rows
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Returns the IDs of a manager's direct reports.
+     *
+     * @param managerId The ID of the manager.
+     * @return The report IDs in ascending order; empty if the manager has no reports.
+     */
+    public List<Long> getReportIds(Long managerId) {
+        return managerId == null ? List.of() : snapshot().reportsByManager.getOrDefault(managerId, List.of());
+    }
+
+    /**
+     * Returns the ID of an employee's manager.
+     *
+     * @param employeeId The ID of the employee.
+     * @return An Optional containing the manager ID, or empty if the employee has no manager or is unknown.
+     */
+    public Optional<Long> getManagerId(Long employeeId) {
+        return employeeId == null ? Optional.empty() : Optional.ofNullable(snapshot().managerByEmployee.get(employeeId));
+    }
+
+    /**
+     * Drop the cached hierarchy, so the next lookup reads it from the database.
+     * Call after a manager assignment has been changed and the change is committed.
+     */
+    public void invalidate() {
+        invalidations.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot cached = snapshot;
+        if (cached != null && System.nanoTime() < cached.expiresAt) {
+            return cached;
+        }
+        long invalidationsBefore = invalidations.get();
+        Snapshot loaded = new Snapshot(employeeRepository.findAllReportingLines(),
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds));
+        if (invalidations.get() == invalidationsBefore) {
+            snapshot = loaded;
+        }
+        return loaded;
+    }
+
+    /**
+     * One immutable view of the hierarchy.
+     */
+    private static final class Snapshot {
+
+        private final Map<Long, List<Long>> reportsByManager;
+        private final Map<Long, Long> managerByEmployee;
+        private final long expiresAt;
+
+        /**
+         * @param lines Pairs of employee ID and manager ID (null for employees without a manager).
+         */
+        private Snapshot(List<Object[]> lines, long expiresAt) {
+            Map<Long, List<Long>> reports = new HashMap<>();
+            Map<Long, Long> managers = new HashMap<>(lines.size() * 2);
+            for (Object[] line : lines) {
+                Long employeeId = (Long) line[0];
+                Long managerId = (Long) line[1];
+                if (managerId != null) {
+                    managers.put(employeeId, managerId);
+                    reports.computeIfAbsent(managerId, id -> new ArrayList<>()).add(employeeId);
+                }
+            }
+            Map<Long, List<Long>> sortedReports = new HashMap<>(reports.size() * 2);
+            reports.forEach((managerId, ids) -> {
+                Collections.sort(ids);
+                sortedReports.put(managerId, List.copyOf(ids));
+            });
+            this.reportsByManager = sortedReports;
+            this.managerByEmployee = managers;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
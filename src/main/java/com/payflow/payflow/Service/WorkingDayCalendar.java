@@ -0,0 +1,170 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.model.PayPeriod;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The company's working-day calendar: every day that is not a weekend day
+ * ({@code payflow.calendar.weekend}) or a holiday ({@code payflow.calendar.holidays}).
+ * Each year is precomputed on first use into a bitset with one bit per day of the year, plus
+ * the number of working days before each 64-day word, so counting the working days in any
+ * range within a year is two popcounts and no iteration over dates. Leave submission, the leave
+ * usage aggregate (and through it payroll) and leave reports all count days with this calendar.
+ */
+@Service
+public class WorkingDayCalendar {
+
+    private final Set<DayOfWeek> weekend;
+    private final Set<LocalDate> holidays;
+    private final ConcurrentMap<Integer, YearCalendar> years = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WorkingDayCalendar(@Value("${payflow.calendar.weekend:SATURDAY,SUNDAY}") String[] weekend,
+                              @Value("${payflow.calendar.holidays:}") String[] holidays) {
+        this(parseWeekend(weekend), parseHolidays(holidays));
+    }
+
+    /**
+     * Creates a calendar with the given weekend days and holidays.
+     */
+    public WorkingDayCalendar(Set<DayOfWeek> weekend, Collection<LocalDate> holidays) {
+        this.weekend = weekend.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(weekend);
+        this.holidays = Set.copyOf(holidays);
+    }
+
+    /**
+     * Returns true if the date is neither a weekend day nor a holiday.
+     */
+    public boolean isWorkingDay(LocalDate date) {
+        return year(date.getYear()).isWorkingDay(date.getDayOfYear() - 1);
+    }
+
+    /**
+     * Counts the working days between two dates, both inclusive.
+     *
+     * @return The number of working days, or 0 if {@code to} is before {@code from}.
+     */
+    public int countWorkingDays(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            return 0;
+        }
+        int count = 0;
+        for (int y = from.getYear(); y <= to.getYear(); y++) {
+            int first = y == from.getYear() ? from.getDayOfYear() - 1 : 0;
+            YearCalendar year = year(y);
+            int last = y == to.getYear() ? to.getDayOfYear() - 1 : year.length - 1;
+            count += year.count(first, last);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the working days of a month.
+     */
+    public int countWorkingDays(YearMonth month) {
+        return countWorkingDays(month.atDay(1), month.atEndOfMonth());
+    }
+
+    /**
+     * Splits a date range into the working days that fall in each month it touches.
+     *
+     * @param from The first day, inclusive.
+     * @param to The last day, inclusive.
+     * @return Working days by numeric period key (yyyymm), in period order; months without
+     *         working days in the range are left out.
+     */
+    public Map<Integer, Integer> splitByMonth(LocalDate from, LocalDate to) {
+        Map<Integer, Integer> days = new LinkedHashMap<>();
+        for (YearMonth month = YearMonth.from(from); !month.atDay(1).isAfter(to); month = month.plusMonths(1)) {
+            LocalDate start = month.atDay(1).isBefore(from) ? from : month.atDay(1);
+            LocalDate end = month.atEndOfMonth().isAfter(to) ? to : month.atEndOfMonth();
+            int count = countWorkingDays(start, end);
+            if (count > 0) {
+                days.put(PayPeriod.key(month), count);
+            }
+        }
+        return days;
+    }
+
+    private YearCalendar year(int year) {
+        return years.computeIfAbsent(year, this::buildYear);
+    }
+
+    private YearCalendar buildYear(int year) {
+        LocalDate day = LocalDate.of(year, 1, 1);
+        int length = day.lengthOfYear();
+        long[] words = new long[(length + 63) >>> 6];
+        for (int i = 0; i < length; i++, day = day.plusDays(1)) {
+            if (!weekend.contains(day.getDayOfWeek()) && !holidays.contains(day)) {
+                words[i >>> 6] |= 1L << i;
+            }
+        }
+        return new YearCalendar(length, words);
+    }
+
+    private static Set<DayOfWeek> parseWeekend(String[] names) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String name : names) {
+            if (!name.isBlank()) {
+                days.add(DayOfWeek.valueOf(name.trim().toUpperCase()));
+            }
+        }
+        return days;
+    }
+
+    private static List<LocalDate> parseHolidays(String[] dates) {
+        List<LocalDate> holidays = new ArrayList<>();
+        for (String date : dates) {
+            if (!date.isBlank()) {
+                holidays.add(LocalDate.parse(date.trim()));
+            }
+        }
+        return holidays;
+    }
+
+    /**
+     * The working days of one year: bit {@code i} is set if day-of-year {@code i + 1} is a working day.
+     */
+    private static final class YearCalendar {
+
+        private final int length;
+        private final long[] words;
+        // Working days before each word, so a count needs only the popcount of one partial word
+        private final int[] rank;
+
+        private YearCalendar(int length, long[] words) {
+            this.length = length;
+            this.words = words;
+            this.rank = new int[words.length + 1];
+            for (int i = 0; i < words.length; i++) {
+                rank[i + 1] = rank[i] + Long.bitCount(words[i]);
+            }
+        }
+
+        private boolean isWorkingDay(int day) {
+            return (words[day >>> 6] & (1L << day)) != 0;
+        }
+
+        /**
+         * Counts the working days from day index {@code first} to {@code last}, both inclusive.
+         */
+        private int count(int first, int last) {
+            return countBefore(last + 1) - countBefore(first);
+        }
+
+        private int countBefore(int day) {
+            int word = day >>> 6;
+            int bits = day & 63;
+            return bits == 0 ? rank[word] : rank[word] + Long.bitCount(words[word] & ((1L << bits) - 1));
+        }
+    }
+}
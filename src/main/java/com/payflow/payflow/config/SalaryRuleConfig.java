@@ -0,0 +1,24 @@
+package com.payflow.payflow.config;
+
+import com.payflow.payflow.salary.SalaryPlan;
+import com.payflow.payflow.salary.SalaryRules;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Compiles the salary rule sets once at startup.
+ * Payslip generation uses {@code payslipSalaryPlan}; the payroll run uses {@code payrollSalaryPlan}.
+ */
+@Configuration
+public class SalaryRuleConfig {
+
+    @Bean
+    public SalaryPlan payslipSalaryPlan() {
+        return SalaryRules.componentBased();
+    }
+
+    @Bean
+    public SalaryPlan payrollSalaryPlan() {
+        return SalaryRules.annualCtcBased();
+    }
+}
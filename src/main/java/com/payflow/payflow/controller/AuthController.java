@@ -1,7 +1,9 @@
 package com.payflow.payflow.Controller;
 
+import com.payflow.payflow.Service.PasswordHasher;
 import com.payflow.payflow.model.User;
 import com.payflow.payflow.model.Employee;
+import com.payflow.payflow.model.EmployeeCredentials;
 import com.payflow.payflow.repository.UserRepository;
 import com.payflow.payflow.repository.EmployeeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +11,10 @@ import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Logger;
 
 /**
  * REST Controller for all authentication-related endpoints, including
@@ -21,75 +27,102 @@ import java.util.*;
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
 public class AuthController {
 
+    private static final Logger logger = Logger.getLogger(AuthController.class.getName());
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
     /**
      * Unified Login Endpoint for both administrative Users and regular Employees.
-     * Checks the User table first (for roles like ADMIN, HR, MANAGER), then the Employee table.
-     * NOTE: For a production application, passwords should be securely hashed (e.g., using BCrypt)
-     * and not stored or compared in plain text. This implementation is for demonstration purposes.
+     * Checks the User table first (for roles like ADMIN, HR, MANAGER), then the Employee table by
+     * email and then by username. The accounts are read on the request thread; the password check
+     * runs on the PasswordHasher pool and the request thread is released while it waits. When the
+     * hashing queue is full the login is refused with 503 instead of queueing without bound.
+     * A plain-text password left from before hashing, or a hash of a lower cost than configured, is
+     * replaced by a current hash after a successful login, off the verification pool.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> credentials) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> credentials) {
         String username = credentials.get("username");
         String password = credentials.get("password");
 
         if (username == null || password == null) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Username and password are required"));
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Map.of("error", "Username and password are required")));
         }
 
-        System.out.println("Login attempt - Username: " + username + ", Password: " + password);
-
-        // First, try to find in User table (for ADMIN, HR, MANAGER roles)
         // Only check User table if the input doesn't look like an email
-        if (!username.contains("@")) {
-            Optional<User> user = userRepository.findByUsername(username);
-            if (user.isPresent() && user.get().getPassword().equals(password)) {
-                User foundUser = user.get();
-                Map<String, Object> response = new HashMap<>();
-                response.put("id", foundUser.getId());
-                response.put("username", foundUser.getUsername());
-                response.put("name", foundUser.getUsername());
-                // A placeholder email is used here. Consider adding an email field to the User table for consistency.
-                response.put("email", foundUser.getUsername() + "@company.com");
-                response.put("role", foundUser.getRole());
-                response.put("firstLogin", foundUser.isFirstLogin());
-                response.put("token", "user-token-" + foundUser.getId()); // Simple token for demo
-
-                return ResponseEntity.ok(response);
-            }
-        }
+        Optional<User> user = username.contains("@") ? Optional.empty() : userRepository.findByUsername(username);
+        List<EmployeeCredentials> employees = new ArrayList<>(2);
+        employeeRepository.findCredentialsByEmail(username).ifPresent(employees::add);
+        employeeRepository.findCredentialsByUsername(username)
+                .filter(found -> employees.isEmpty() || !employees.get(0).getId().equals(found.getId()))
+                .ifPresent(employees::add);
+
+        // Candidate passwords in lookup order: the user first, then the employees
+        List<String> storedPasswords = new ArrayList<>(3);
+        user.ifPresent(u -> storedPasswords.add(u.getPassword()));
+        employees.forEach(e -> storedPasswords.add(e.getPassword()));
+
+        return passwordHasher.verify(password, storedPasswords)
+                .<ResponseEntity<?>>thenApply(verification -> {
+                    if (!verification.isMatch()) {
+                        logger.info("Failed login for: " + username);
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                .body(Map.of("error", "Invalid username or password"));
+                    }
+                    int index = verification.getMatchedIndex() - (user.isPresent() ? 1 : 0);
+                    return index < 0
+                            ? ResponseEntity.ok(userLoginResponse(user.get(), password, verification.needsUpgrade()))
+                            : ResponseEntity.ok(employeeLoginResponse(employees.get(index), password, verification.needsUpgrade()));
+                })
+                .exceptionally(error -> {
+                    if (error.getCause() instanceof RejectedExecutionException) {
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .body(Map.of("error", "Too many login attempts, please try again"));
+                    }
+                    throw error instanceof CompletionException ce ? ce : new CompletionException(error);
+                });
+    }
 
-        // Now try Employee table
-        System.out.println("Trying Employee table with input: " + username);
-        Optional<Employee> employee = employeeRepository.findByEmailAndPassword(username, password);
-        if (!employee.isPresent()) {
-            // If email not found, try username and password
-            System.out.println("Email not found, trying username: " + username);
-            employee = employeeRepository.findByUsernameAndPassword(username, password);
-        }
-        if (employee.isPresent()) {
-            Employee foundEmployee = employee.get();
-            System.out.println("Employee found: " + foundEmployee.getName() + " with role: " + foundEmployee.getRole());
-            return ResponseEntity.ok(Map.of(
-                    "id", foundEmployee.getId(),
-                    "username", foundEmployee.getUsername(),
-                    "name", foundEmployee.getName(),
-                    "email", foundEmployee.getEmail(),
-                    "role", foundEmployee.getRole(),
-                    "firstLogin", foundEmployee.getFirstLogin(),
-                    "token", "employee-token-" + foundEmployee.getId()
-            ));
+    private Map<String, Object> userLoginResponse(User foundUser, String password, boolean needsUpgrade) {
+        if (needsUpgrade) {
+            passwordHasher.upgradeLater(password,
+                    hash -> userRepository.updatePassword(foundUser.getId(), foundUser.getPassword(), hash));
         }
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", foundUser.getId());
+        response.put("username", foundUser.getUsername());
+        response.put("name", foundUser.getUsername());
+        // A placeholder email is used here. Consider adding an email field to the User table for consistency.
+        response.put("email", foundUser.getUsername() + "@company.com");
+        response.put("role", foundUser.getRole());
+        response.put("firstLogin", foundUser.isFirstLogin());
+        response.put("token", "user-token-" + foundUser.getId()); // Simple token for demo
+        return response;
+    }
 
-        // If not found in either table, return unauthorized
-        System.out.println("No user or employee found with credentials: " + username);
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body(Map.of("error", "Invalid username or password"));
+    private Map<String, Object> employeeLoginResponse(EmployeeCredentials foundEmployee, String password, boolean needsUpgrade) {
+        if (needsUpgrade) {
+            passwordHasher.upgradeLater(password,
+                    hash -> employeeRepository.updatePassword(foundEmployee.getId(), foundEmployee.getPassword(), hash));
+        }
+        return Map.of(
+                "id", foundEmployee.getId(),
+                "username", foundEmployee.getUsername(),
+                "name", foundEmployee.getName(),
+                "email", foundEmployee.getEmail(),
+                "role", foundEmployee.getRole(),
+                "firstLogin", foundEmployee.getFirstLogin(),
+                "token", "employee-token-" + foundEmployee.getId()
+        );
     }
 
     /**
@@ -107,7 +140,7 @@ public class AuthController {
         Optional<User> user = userRepository.findByUsername(username);
         if (user.isPresent()) {
             User u = user.get();
-            u.setPassword(newPassword);
+            u.setPassword(passwordHasher.hash(newPassword));
             u.setFirstLogin(false);
             userRepository.save(u);
             return ResponseEntity.ok(Map.of("message", "Password reset successful"));
@@ -140,7 +173,7 @@ public class AuthController {
                 // PF Number validation has been removed as requested
                 // This is now a security vulnerability.
 
-                emp.setPassword(newPassword);
+                emp.setPassword(passwordHasher.hash(newPassword));
                 emp.setFirstLogin(false);
                 employeeRepository.save(emp);
                 return ResponseEntity.ok(Map.of("message", "Password reset successful"));
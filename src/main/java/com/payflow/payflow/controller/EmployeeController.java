@@ -1,9 +1,12 @@
 package com.payflow.payflow.Controller;
 
 import com.payflow.payflow.Service.EmployeeService;
+import com.payflow.payflow.Service.OrgHierarchyService;
 import com.payflow.payflow.Service.PaymentHoldService;
 import com.payflow.payflow.model.Employee;
+import com.payflow.payflow.model.EmployeeSummary;
 import com.payflow.payflow.repository.EmployeeRepository;
+import com.payflow.payflow.repository.KeysetQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
@@ -24,22 +27,63 @@ public class EmployeeController {
     @Autowired
     private PaymentHoldService paymentHoldService;
 
+    @Autowired
+    private OrgHierarchyService orgHierarchyService;
+
     /**
      * Endpoint to retrieve a list of all employees in the system.
-     * This method also checks if each employee has a payment hold and sets the hasPaymentHold flag accordingly.
+     * This method also sets the hasPaymentHold flag of each employee, using one payment hold query for the whole list.
      * @return A List of Employee objects with payment hold status.
      */
     @GetMapping
     public List<Employee> getAllEmployees() {
-        List<Employee> employees = employeeService.getAllEmployees();
-        
-        // Check payment hold status for each employee
-        for (Employee employee : employees) {
-            boolean hasHold = paymentHoldService.hasPaymentHold(employee.getId());
-            employee.setHasPaymentHold(hasHold);
+        return paymentHoldService.markPaymentHolds(employeeService.getAllEmployees());
+    }
+
+    /**
+     * Endpoint to retrieve one page of employees for list views.
+     * Pages are keyset-paginated by ID: pass the returned {@code nextCursor} as {@code afterId} to get the next page.
+     * Only the requested fields are read from the database; the password is never returned, and the
+     * computed {@code hasPaymentHold} flag may be requested like a field.
+     * @param afterId The cursor of the previous page; omit for the first page.
+     * @param limit The page size (default 50, at most 500).
+     * @param status Filter by employee status (e.g., "ACTIVE").
+     * @param role Filter by role (e.g., "MANAGER").
+     * @param managerId Filter by manager.
+     * @param fields Comma-separated fields to return (e.g., "id,name,email"); defaults to the fields of the employee list.
+     * @return A ResponseEntity with the page in "data" and "nextCursor"/"hasMore", or 400 if a field is not allowed.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<Map<String, Object>> getEmployeePage(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) Long managerId,
+            @RequestParam(required = false) String fields) {
+        try {
+            // hasPaymentHold is not a column; it is answered from the payment hold index
+            boolean withHold = false;
+            String columns = fields;
+            if (fields != null) {
+                List<String> requested = new ArrayList<>(Arrays.asList(fields.split(",")));
+                withHold = requested.removeIf(field -> field.trim().equals("hasPaymentHold"));
+                columns = String.join(",", requested);
+            }
+
+            KeysetQuery.Page page = employeeService.getEmployeePage(afterId, limit, status, role, managerId, columns);
+            if (withHold) {
+                for (Map<String, Object> row : page.getRows()) {
+                    row.put("hasPaymentHold", paymentHoldService.hasPaymentHold((Long) row.get("id")));
+                }
+            }
+            return ResponseEntity.ok(page.toResponse());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         }
-        
-        return employees;
     }
 
     /**
@@ -52,6 +96,39 @@ public class EmployeeController {
         return employeeService.getEmployeesByManager(managerId);
     }
 
+    /**
+     * Endpoint to retrieve everyone reporting to a manager at any depth, nearest levels first.
+     * Served from the org closure table with one query, however deep the hierarchy is.
+     * @param managerId The ID of the manager.
+     * @param maxDepth The deepest level to include (1 for direct reports), or omitted for all levels.
+     * @return A Map with "success", "count" and "data" (employee summaries).
+     */
+    @GetMapping("/manager/{managerId}/subtree")
+    public Map<String, Object> getSubtree(@PathVariable Long managerId,
+                                          @RequestParam(required = false) Integer maxDepth) {
+        List<EmployeeSummary> subtree = orgHierarchyService.getSubtree(managerId, maxDepth);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("count", subtree.size());
+        response.put("data", subtree);
+        return response;
+    }
+
+    /**
+     * Endpoint to count everyone reporting to a manager at any depth (headcount report).
+     * @param managerId The ID of the manager.
+     * @param maxDepth The deepest level to include (1 for direct reports), or omitted for all levels.
+     * @return A Map with "success" and "headcount".
+     */
+    @GetMapping("/manager/{managerId}/subtree/count")
+    public Map<String, Object> countSubtree(@PathVariable Long managerId,
+                                            @RequestParam(required = false) Integer maxDepth) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("headcount", orgHierarchyService.countSubtree(managerId, maxDepth));
+        return response;
+    }
+
     /**
      * Endpoint to retrieve all employees who have not yet been assigned a manager.
      * This is useful for HR during the onboarding process.
@@ -90,7 +167,6 @@ public class EmployeeController {
             if (payload == null) {
                 return ResponseEntity.badRequest().body(Map.of("error", "Request body is required"));
             }
-            System.out.println("Creating employee with payload: " + payload);
             Employee createdEmployee = employeeService.createEmployeeWithOnboarding(payload);
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Employee created successfully");
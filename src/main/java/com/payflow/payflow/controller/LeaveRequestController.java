@@ -2,10 +2,14 @@ package com.payflow.payflow.Controller;
 
 import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import com.payflow.payflow.Service.LeaveRequestService;
+import com.payflow.payflow.Service.LeaveUsageService;
 import com.payflow.payflow.Entity.LeaveRequest;
 import com.payflow.payflow.model.Employee;
 import com.payflow.payflow.repository.EmployeeRepository;
+import com.payflow.payflow.repository.KeysetQuery;
 import com.payflow.payflow.repository.LeaveRequestRepository;
 
 import java.time.LocalDate;
@@ -27,6 +31,9 @@ public class LeaveRequestController {
     @Autowired
     private LeaveRequestRepository repository;
 
+    @Autowired
+    private LeaveUsageService leaveUsageService;
+
     /**
      * Submits a new leave request.
      */
@@ -61,6 +68,68 @@ public class LeaveRequestController {
         }
     }
 
+    /**
+     * Retrieves one page of leave requests, keyset-paginated by ID and filtered on the server.
+     * Pass the returned nextCursor as afterId to get the next page; fields selects the columns to return.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<Map<String, Object>> getLeavePage(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) Long managerId,
+            @RequestParam(required = false) String fields) {
+        try {
+            KeysetQuery.Page page = service.getLeavePage(afterId, limit, status, employeeId, managerId, fields);
+            return ResponseEntity.ok(page.toResponse());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Retrieves an employee's leave usage report for a year: working days and approved leave days per month.
+     */
+    @GetMapping("/usage/{employeeId}")
+    public Map<String, Object> getLeaveUsage(@PathVariable Long employeeId,
+                                             @RequestParam(required = false) Integer year) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", leaveUsageService.getUsageReport(employeeId, year != null ? year : LocalDate.now().getYear()));
+        return response;
+    }
+
+    /**
+     * Recomputes the leave usage aggregate from the approved leave requests, e.g. after holidays changed.
+     */
+    @PostMapping("/usage/rebuild")
+    public Map<String, Object> rebuildLeaveUsage() {
+        Map<String, Object> response = new HashMap<>();
+        int rows = leaveUsageService.rebuild();
+        response.put("success", true);
+        response.put("message", "Leave usage rebuilt: " + rows + " employee-month rows");
+        return response;
+    }
+
+    /**
+     * Retrieves one page of the leave requests of a manager's team, filtered by status and dates in one join query.
+     * Pass the returned nextCursor as afterId to get the next page.
+     */
+    @GetMapping("/manager/{managerId}/page")
+    public Map<String, Object> getTeamLeavePage(
+            @PathVariable Long managerId,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return service.getTeamLeavePage(managerId, afterId, limit, status, from, to);
+    }
+
     /**
      * Retrieves leave requests by manager ID.
      */
@@ -2,6 +2,7 @@ package com.payflow.payflow.Controller;
 
 import com.payflow.payflow.Service.PaymentHoldService;
 import com.payflow.payflow.model.PaymentHold;
+import com.payflow.payflow.repository.KeysetQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -69,6 +70,33 @@ public class PaymentHoldController {
         }
     }
 
+    /**
+     * Get one page of payment holds, keyset-paginated by ID.
+     * Pass the returned nextCursor as afterId to get the next page.
+     * 
+     * @param afterId The cursor of the previous page; omit for the first page.
+     * @param limit The page size (default 50, at most 500).
+     * @param appliedBy Filter by the user who applied the hold.
+     * @param fields Comma-separated fields to return (e.g., "id,employeeId"); defaults to all fields.
+     * @return A ResponseEntity with the page in "data" and "nextCursor"/"hasMore", or 400 if a field is unknown.
+     */
+    @GetMapping("/employees/payment-hold/page")
+    public ResponseEntity<Map<String, Object>> getPaymentHoldPage(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long appliedBy,
+            @RequestParam(required = false) String fields) {
+        try {
+            KeysetQuery.Page page = paymentHoldService.getPaymentHoldPage(afterId, limit, appliedBy, fields);
+            return ResponseEntity.ok(page.toResponse());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     /**
      * Check if an employee has a payment hold.
      * 
@@ -0,0 +1,76 @@
+package com.payflow.payflow.Controller;
+
+import com.payflow.payflow.Service.PayrollRunLedgerService;
+import com.payflow.payflow.Service.PayrollService;
+import com.payflow.payflow.model.PayrollRun;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for running payroll for a whole month.
+ */
+@RestController
+@RequestMapping("/api/payroll")
+@CrossOrigin(origins = "http://localhost:3000")
+public class PayrollController {
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private PayrollRunLedgerService payrollRunLedgerService;
+
+    /**
+     * Endpoint to run payroll for all employees as a partitioned run.
+     * Employees are processed in ID-range chunks, each committed in its own transaction.
+     * @param month The month for which to run payroll (e.g., "January").
+     * @param year The year for which to run payroll (e.g., 2025).
+     * @param regenerate If true, existing payslips for the month are regenerated.
+     * @param parallelism The number of chunks processed at the same time; defaults to {@code payflow.payroll.parallelism}.
+     * @return A ResponseEntity with a map containing the totals, the per-chunk progress and the failure list.
+     */
+    @PostMapping("/generate")
+    public ResponseEntity<Map<String, Object>> generatePayroll(
+            @RequestParam String month,
+            @RequestParam Integer year,
+            @RequestParam(defaultValue = "false") boolean regenerate,
+            @RequestParam(required = false) Integer parallelism) {
+        Map<String, Object> response = parallelism != null
+                ? payrollService.generatePayrollPartitioned(month, year, regenerate, parallelism)
+                : payrollService.generatePayrollPartitioned(month, year, regenerate);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Endpoint to list the payroll and payslip runs recorded in the run ledger for a month and year.
+     * @param month The month of the runs (e.g., "January").
+     * @param year The year of the runs.
+     * @return A ResponseEntity with a map containing the runs, newest first.
+     */
+    @GetMapping("/runs")
+    public ResponseEntity<Map<String, Object>> getRuns(@RequestParam String month, @RequestParam Integer year) {
+        List<PayrollRun> runs = payrollRunLedgerService.getRuns(month, year);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", runs);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Endpoint to retrieve the chunks of a run with their boundaries and checkpoint status.
+     * @param runId The ID of the run.
+     * @return A ResponseEntity with a map containing the chunks in order.
+     */
+    @GetMapping("/runs/{runId}/chunks")
+    public ResponseEntity<Map<String, Object>> getRunChunks(@PathVariable Long runId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", payrollRunLedgerService.getChunks(runId));
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,24 +1,32 @@
 package com.payflow.payflow.Controller;
 
+import com.payflow.payflow.Service.PayslipArchiveService;
+import com.payflow.payflow.Service.PayslipDocumentStore;
+import com.payflow.payflow.Service.PayslipJob;
+import com.payflow.payflow.Service.PayslipJobService;
+import com.payflow.payflow.Service.PayslipPdfService;
 import com.payflow.payflow.Service.PayslipService;
-import com.payflow.payflow.model.CTCDetails;
-import com.payflow.payflow.model.Employee;
+import com.payflow.payflow.model.PayPeriod;
 import com.payflow.payflow.model.Payslip;
-import com.payflow.payflow.repository.CTCDetailsRepository;
-import com.payflow.payflow.repository.EmployeeRepository;
-import com.payflow.payflow.repository.PayslipRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.time.YearMonth;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -27,17 +35,26 @@ import java.util.Optional;
 @CrossOrigin(origins = "http://localhost:3000")
 public class PayslipController {
 
+    // Request attributes through which Tomcat hands a file to its sendfile implementation
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     @Autowired
     private PayslipService payslipService;
 
     @Autowired
-    private EmployeeRepository employeeRepository;
+    private PayslipJobService payslipJobService;
+
+    @Autowired
+    private PayslipPdfService payslipPdfService;
 
     @Autowired
-    private CTCDetailsRepository ctcDetailsRepository;
+    private PayslipDocumentStore payslipDocumentStore;
 
     @Autowired
-    private PayslipRepository payslipRepository;
+    private PayslipArchiveService payslipArchiveService;
 
     /**
      * Endpoint to generate a payslip for a specific employee based on the provided payload.
@@ -92,12 +109,9 @@ public class PayslipController {
             // Get the previous month and year
             LocalDate currentDate = LocalDate.now();
             LocalDate previousMonth = currentDate.minusMonths(1);
-            String month = previousMonth.getMonth().toString();
+            String month = PayPeriod.monthName(previousMonth.getMonth());
             int year = previousMonth.getYear();
             
-            // Convert month to title case (e.g., "JANUARY" to "January")
-            month = month.substring(0, 1) + month.substring(1).toLowerCase();
-            
             // Generate payslips for all employees for the previous month
             Map<String, Object> result = payslipService.generateBulkPayslips(month, year);
             
@@ -114,13 +128,90 @@ public class PayslipController {
     }
 
     /**
-     * Endpoint to retrieve all payslips for a given employee.
+     * Endpoint to submit a bulk payslip generation job that runs in the background.
+     * Returns immediately with a job ID that can be polled via {@code /jobs/{jobId}}.
+     * @param payload A Map containing the month and year for which to generate payslips.
+     * @return A ResponseEntity with status 202 and a map containing the job ID, or 400 if the request is invalid.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> submitBulkJob(@RequestBody Map<String, Object> payload) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            String month = (String) payload.get("month");
+            Integer year = Integer.parseInt(payload.get("year").toString());
+            response = payslipJobService.submitBulkJob(month, year);
+            if (!(Boolean) response.get("success")) {
+                return ResponseEntity.badRequest().body(response);
+            }
+            response.put("statusUrl", "/api/payslip/jobs/" + response.get("jobId"));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Error submitting payslip job: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Endpoint to poll the status and progress counters of a bulk payslip job.
+     * @param jobId The ID of the job.
+     * @return A ResponseEntity with the job status, or 404 if the job is unknown or has expired.
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getJobStatus(@PathVariable String jobId) {
+        Optional<PayslipJob> jobOpt = payslipJobService.getJob(jobId);
+        if (!jobOpt.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", jobOpt.get().toStatus());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Endpoint to page through the per-employee results of a bulk payslip job.
+     * Results become available chunk by chunk while the job is still running.
+     * @param jobId The ID of the job.
+     * @param page The zero-based page number.
+     * @param size The page size (at most 1000).
+     * @return A ResponseEntity with the requested page of results, or 404 if the job is unknown or has expired.
+     */
+    @GetMapping("/jobs/{jobId}/results")
+    public ResponseEntity<Map<String, Object>> getJobResults(
+            @PathVariable String jobId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        Optional<PayslipJob> jobOpt = payslipJobService.getJob(jobId);
+        if (!jobOpt.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        PayslipJob job = jobOpt.get();
+        int pageSize = Math.max(1, Math.min(size, 1000));
+        int pageNumber = Math.max(0, page);
+        List<Map<String, Object>> results = job.getResults(pageNumber, pageSize);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("status", job.getStatus());
+        response.put("page", pageNumber);
+        response.put("size", pageSize);
+        response.put("totalResults", job.getResultCount());
+        response.put("data", results);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Endpoint to retrieve all payslips for a given employee, newest period first.
      * @param employeeId The ID of the employee.
+     * @param last Optional number of most recent payslips to return (e.g., 12 for the last year); all if omitted.
      * @return A ResponseEntity with a status and a map containing the success status and a list of all payslips for the employee.
      */
     @GetMapping("/employee/{employeeId}/all")
-    public ResponseEntity<Map<String, Object>> getEmployeePayslips(@PathVariable Long employeeId) {
-        Map<String, Object> response = payslipService.getEmployeePayslips(employeeId);
+    public ResponseEntity<Map<String, Object>> getEmployeePayslips(
+            @PathVariable Long employeeId,
+            @RequestParam(required = false) Integer last) {
+        Map<String, Object> response = payslipService.getEmployeePayslips(employeeId, last);
         return ResponseEntity.ok(response);
     }
 
@@ -142,127 +233,143 @@ public class PayslipController {
 
     /**
      * Endpoint to download a specific payslip as a PDF.
-     * This endpoint retrieves the payslip data, generates a placeholder PDF, and sends it as a downloadable file.
-     * In a production environment, a dedicated PDF generation library would be used here.
+     * Payslips rendered into the document store during generation are served from there; older
+     * payslips are rendered from the precompiled payslip template and streamed straight to the
+     * response, so the document is never held in memory as a whole.
      * @param employeeId The ID of the employee.
      * @param month The month of the payslip.
      * @param year The year of the payslip.
-     * @return A ResponseEntity containing the PDF file as a byte array, or a 404/500 error if not found or an error occurs.
+     * @param request The current request, used for conditional GET handling.
+     * @param response The response the PDF is written to; 404 if the payslip is not found, 500 if an error occurs.
      */
     @GetMapping("/download-pdf/{employeeId}/{month}/{year}")
-    public ResponseEntity<byte[]> downloadPayslipPdf(
+    public void downloadPayslipPdf(
             @PathVariable Long employeeId,
             @PathVariable String month,
-            @PathVariable Integer year) {
+            @PathVariable Integer year,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         try {
-            // Verify payslip exists
-            Optional<Payslip> payslipOpt = payslipRepository.findByEmployeeIdAndMonthAndYear(employeeId, month, year);
+            Optional<Payslip> payslipOpt = payslipPdfService.findPayslip(employeeId, month, year);
             if (!payslipOpt.isPresent()) {
-                return ResponseEntity.notFound().build();
-            }
-
-            // Get employee details
-            Optional<Employee> employeeOpt = employeeRepository.findById(employeeId);
-            if (!employeeOpt.isPresent()) {
-                return ResponseEntity.notFound().build();
+                response.sendError(HttpStatus.NOT_FOUND.value());
+                return;
             }
-
-            Employee employee = employeeOpt.get();
             Payslip payslip = payslipOpt.get();
 
-            // Get CTC details
-            Optional<CTCDetails> ctcOpt = ctcDetailsRepository.findFirstByEmployeeIdOrderByEffectiveFromDesc(employeeId);
-            if (!ctcOpt.isPresent()) {
-                return ResponseEntity.notFound().build();
+            Optional<String> hashOpt = payslipDocumentStore.hashFromLink(payslip.getDownloadLink());
+            Optional<Path> storedOpt = hashOpt.flatMap(payslipDocumentStore::resolve);
+            if (storedOpt.isPresent()) {
+                serveStoredDocument(hashOpt.get(), storedOpt.get(),
+                        PayslipPdfService.fileName(employeeId, payslip.getMonth(), payslip.getYear()), request, response);
+                return;
             }
 
-            CTCDetails ctc = ctcOpt.get();
-
-            // Create a simple PDF content (in a real system, use a PDF library)
-            // This is a placeholder for demonstration purposes
-            String pdfContent = generatePayslipContent(employee, payslip, ctc, month, year);
-            byte[] pdfBytes = pdfContent.getBytes();
+            Optional<PayslipPdfService.PayslipDocument> documentOpt = payslipPdfService.loadDocument(payslip);
+            if (!documentOpt.isPresent()) {
+                response.sendError(HttpStatus.NOT_FOUND.value());
+                return;
+            }
+            PayslipPdfService.PayslipDocument document = documentOpt.get();
 
-            // Set up response headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "payslip_" + employee.getName() + "_" + month + "_" + year + ".pdf");
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+            response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, attachment(document.getFileName()));
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "must-revalidate, post-check=0, pre-check=0");
 
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+            BufferedOutputStream buffered = new BufferedOutputStream(response.getOutputStream());
+            payslipPdfService.render(document, buffered);
+            buffered.flush();
 
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            if (!response.isCommitted()) {
+                response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            }
         }
     }
 
     /**
-     * Helper method to generate placeholder text content for the payslip PDF.
-     * This method formats the employee and payslip data into a readable string.
-     * @param employee The employee object.
-     * @param payslip The payslip object.
-     * @param ctc The current CTC details.
-     * @param month The month of the payslip.
-     * @param year The year of the payslip.
-     * @return A formatted String representing the payslip content.
+     * Endpoint to download a payslip document from the document store by its content hash.
+     * This is the target of the {@code downloadLink} of payslips rendered during generation.
+     * Stored documents never change, so the hash is sent as a strong ETag and repeat downloads
+     * are answered with 304 Not Modified.
+     * @param hash The SHA-256 hash of the document.
+     * @param request The current request, used for conditional GET handling.
+     * @param response The response the PDF is written to; 404 if no document is stored under the hash.
      */
-    private String generatePayslipContent(Employee employee, Payslip payslip, CTCDetails ctc, String month, Integer year) {
-        StringBuilder content = new StringBuilder();
-
-        // Company header
-        content.append("PAYFLOW\n");
-        content.append("PAYSLIP FOR " + month.toUpperCase() + " " + year + "\n\n");
-
-        // Employee details
-        content.append("Employee Name: " + employee.getName() + "\n");
-        content.append("Employee ID: " + employee.getId() + "\n\n");
-
-        // Calculate monthly components
-        BigDecimal divisor = BigDecimal.valueOf(12);
-        BigDecimal basicSalary = ctc.getBasicSalary().divide(divisor, 2, RoundingMode.HALF_UP);
-        BigDecimal hra = ctc.getHra().divide(divisor, 2, RoundingMode.HALF_UP);
-
-        // Earnings
-        content.append("EARNINGS:\n");
-        content.append("Basic Salary: " + basicSalary + "\n");
-        content.append("HRA: " + hra + "\n");
-
-        if (ctc.getDa() != null) {
-            BigDecimal da = ctc.getDa().divide(divisor, 2, RoundingMode.HALF_UP);
-            content.append("DA: " + da + "\n");
+    @GetMapping("/documents/{hash}")
+    public void downloadStoredDocument(
+            @PathVariable String hash,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Optional<Path> storedOpt = payslipDocumentStore.resolve(hash);
+        if (!storedOpt.isPresent()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
         }
+        serveStoredDocument(hash, storedOpt.get(), "payslip_" + hash.substring(0, 12) + ".pdf", request, response);
+    }
 
-        if (ctc.getSpecialAllowance() != null) {
-            BigDecimal specialAllowance = ctc.getSpecialAllowance().divide(divisor, 2, RoundingMode.HALF_UP);
-            content.append("Special Allowance: " + specialAllowance + "\n");
+    /**
+     * Endpoint to download all payslips of a month as a single ZIP archive, one PDF per employee.
+     * The archive is streamed while the payslips are read from the database, so it can be
+     * requested for any number of employees.
+     * @param month The month of the payslips (e.g., "January").
+     * @param year The year of the payslips.
+     * @return A ResponseEntity streaming the ZIP file, 400 if the month is invalid, or 404 if there are no payslips for the month.
+     */
+    @GetMapping("/download-zip/{month}/{year}")
+    public ResponseEntity<StreamingResponseBody> downloadPayslipArchive(
+            @PathVariable String month,
+            @PathVariable Integer year) {
+        if (!payslipService.isValidMonth(month)) {
+            return ResponseEntity.badRequest().build();
         }
-
-        if (ctc.getAllowances() != null && ctc.getAllowances().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal allowances = ctc.getAllowances().divide(divisor, 2, RoundingMode.HALF_UP);
-            content.append("Other Allowances: " + allowances + "\n");
+        if (!payslipArchiveService.hasPayslips(month, year)) {
+            return ResponseEntity.notFound().build();
         }
 
-        // Calculate gross pay (monthly CTC)
-        BigDecimal grossPay = ctc.getTotalCTC().divide(divisor, 2, RoundingMode.HALF_UP);
-        content.append("Gross Pay: " + grossPay + "\n\n");
-
-        // Deductions
-        content.append("DEDUCTIONS:\n");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(PayslipArchiveService.archiveFileName(month, year)).build());
+
+        StreamingResponseBody body = out -> {
+            BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+            payslipArchiveService.writeArchive(month, year, buffered);
+            buffered.flush();
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
 
-        if (ctc.getPfContribution() != null && ctc.getPfContribution().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal pf = ctc.getPfContribution().divide(divisor, 2, RoundingMode.HALF_UP);
-            content.append("PF Contribution: " + pf + "\n");
+    /**
+     * Writes a stored document to the response with ETag and Last-Modified headers.
+     * When the container supports sendfile the file is handed to it, so the bytes never pass
+     * through the Java heap; otherwise it is copied to the response stream.
+     */
+    private void serveStoredDocument(String hash, Path file, String fileName,
+                                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + hash + "\"", lastModified)) {
+            return;
         }
 
-        // Leave deductions
-        content.append("Leave Deductions: " + payslip.getDeductions() + "\n");
-
-        // Net pay
-        content.append("\nNET PAY: " + payslip.getNetPay() + "\n\n");
+        long length = Files.size(file);
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setContentLengthLong(length);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, attachment(fileName));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return;
+        }
 
-        // Footer
-        content.append("This is a computer-generated payslip and does not require a signature.\n");
+        Files.copy(file, response.getOutputStream());
+    }
 
-        return content.toString();
+    private static String attachment(String fileName) {
+        return ContentDisposition.attachment().filename(fileName).build().toString();
     }
 }
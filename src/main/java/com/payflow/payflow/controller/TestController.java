@@ -69,11 +69,13 @@ public class TestController {
 
         try {
             System.out.println("=== EMPLOYEE CREATION DEBUG ===");
-            System.out.println("Received payload: " + payload);
             System.out.println("Payload keys: " + payload.keySet());
 
             // Check each field
             for (Map.Entry<String, Object> entry : payload.entrySet()) {
+                if ("password".equals(entry.getKey())) {
+                    continue; // Never log the password
+                }
                 System.out.println("Field: " + entry.getKey() + " = " + entry.getValue() + " (Type: " + (entry.getValue() != null ? entry.getValue().getClass().getSimpleName() : "null") + ")");
             }
 
@@ -1,5 +1,6 @@
 package com.payflow.payflow.Controller;
 
+import com.payflow.payflow.Service.PasswordHasher;
 import com.payflow.payflow.model.User;
 import com.payflow.payflow.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,6 +8,9 @@ import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/users")
@@ -16,28 +20,50 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
     /**
      * Endpoint for user login.
      * @param body A Map containing the "username" and "password".
      * @return A ResponseEntity with user details on success or an unauthorized message on failure.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> body) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> body) {
         String username = body.get("username");
         String password = body.get("password");
 
-        Optional<User> user = userRepository.findByUsername(username);
-
-        if (user.isPresent() && user.get().getPassword().equals(password)) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", user.get().getId());
-            response.put("username", user.get().getUsername());
-            response.put("role", user.get().getRole());
-            response.put("firstLogin", user.get().isFirstLogin());
-            return ResponseEntity.ok(response);
+        if (username == null || password == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials"));
         }
 
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+        Optional<User> user = userRepository.findByUsername(username);
+
+        // The password is checked on the PasswordHasher pool, not on the request thread
+        return passwordHasher.verify(password, user.map(u -> List.of(u.getPassword())).orElse(List.of()))
+                .<ResponseEntity<?>>thenApply(verification -> {
+                    if (!verification.isMatch()) {
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+                    }
+                    User u = user.get();
+                    if (verification.needsUpgrade()) {
+                        passwordHasher.upgradeLater(password, hash -> userRepository.updatePassword(u.getId(), u.getPassword(), hash));
+                    }
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("id", u.getId());
+                    response.put("username", u.getUsername());
+                    response.put("role", u.getRole());
+                    response.put("firstLogin", u.isFirstLogin());
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(error -> {
+                    if (error.getCause() instanceof RejectedExecutionException) {
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .body("Too many login attempts, please try again");
+                    }
+                    throw error instanceof CompletionException ce ? ce : new CompletionException(error);
+                });
     }
 
     /**
@@ -53,6 +79,9 @@ public class UserController {
         }
 
         user.setFirstLogin(true); // new user must reset password
+        if (user.getPassword() != null) {
+            user.setPassword(passwordHasher.hash(user.getPassword()));
+        }
         return ResponseEntity.ok(userRepository.save(user));
     }
 
@@ -66,11 +95,15 @@ public class UserController {
         String username = body.get("username");
         String newPassword = body.get("newPassword");
 
+        if (newPassword == null) {
+            return ResponseEntity.badRequest().body("newPassword is required");
+        }
+
         Optional<User> user = userRepository.findByUsername(username);
 
         if (user.isPresent()) {
             User u = user.get();
-            u.setPassword(newPassword);
+            u.setPassword(passwordHasher.hash(newPassword));
             u.setFirstLogin(false);
             return ResponseEntity.ok(userRepository.save(u));
         }
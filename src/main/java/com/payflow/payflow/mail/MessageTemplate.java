@@ -0,0 +1,106 @@
+package com.payflow.payflow.mail;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A precompiled plain-text message template with named {@code {placeholders}}.
+ * The template text is parsed once into literal segments and slot references, so rendering a
+ * message is a single pass that appends segments into a presized buffer, with no parsing or
+ * pattern matching per message. Instances are immutable and safe to share between threads.
+ */
+public final class MessageTemplate {
+
+    private final Object[] segments;
+    private final Map<String, Integer> slots;
+    private final int literalLength;
+
+    private MessageTemplate(Object[] segments, Map<String, Integer> slots, int literalLength) {
+        this.segments = segments;
+        this.slots = slots;
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Compiles a template. Placeholders are written as {@code {name}}; a name may appear more than once.
+     *
+     * @param text The template text.
+     * @return The compiled template.
+     * @throws IllegalArgumentException if a placeholder is not closed.
+     */
+    public static MessageTemplate compile(String text) {
+        List<Object> segments = new ArrayList<>();
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        int literalLength = 0;
+        int position = 0;
+        while (position < text.length()) {
+            int open = text.indexOf('{', position);
+            if (open < 0) {
+                break;
+            }
+            int close = text.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at position " + open + " in template: " + text);
+            }
+            if (open > position) {
+                segments.add(text.substring(position, open));
+                literalLength += open - position;
+            }
+            String name = text.substring(open + 1, close);
+            segments.add(slots.computeIfAbsent(name, key -> slots.size()));
+            position = close + 1;
+        }
+        if (position < text.length()) {
+            segments.add(text.substring(position));
+            literalLength += text.length() - position;
+        }
+        return new MessageTemplate(segments.toArray(), Map.copyOf(slots), literalLength);
+    }
+
+    /**
+     * Returns the index of a placeholder, to be used as the position in the values array passed to {@link #render}.
+     *
+     * @throws IllegalArgumentException if the template has no placeholder with that name.
+     */
+    public int slotIndex(String name) {
+        Integer index = slots.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown template placeholder: " + name);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the number of distinct placeholders in the template.
+     */
+    public int slotCount() {
+        return slots.size();
+    }
+
+    /**
+     * Renders the template.
+     *
+     * @param values The placeholder values, indexed by {@link #slotIndex}; null values render as empty text.
+     * @return The rendered text.
+     */
+    public String render(String... values) {
+        int length = literalLength;
+        for (String value : values) {
+            length += value != null ? value.length() : 0;
+        }
+        StringBuilder out = new StringBuilder(length);
+        for (Object segment : segments) {
+            if (segment instanceof String literal) {
+                out.append(literal);
+            } else {
+                String value = values[(Integer) segment];
+                if (value != null) {
+                    out.append(value);
+                }
+            }
+        }
+        return out.toString();
+    }
+}
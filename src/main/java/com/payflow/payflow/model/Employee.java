@@ -1,6 +1,8 @@
 package com.payflow.payflow.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.LazyGroup;
 import java.time.LocalDate;
 
 /**
@@ -61,8 +63,10 @@ public class Employee {
     private String status;
 
     /**
-     * The password for the employee's account.
+     * The password for the employee's account: a BCrypt hash, or the plain-text password
+     * of an account that has not logged in since passwords were hashed. Never written to responses.
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
 
     /**
@@ -75,14 +79,21 @@ public class Employee {
     /**
      * A detailed description of the employee's educational background.
      * Stored as `LONGTEXT` to accommodate longer text.
+     * Loaded lazily (together with `experiences`) on first access, so queries that never
+     * read the profile do not fetch it; requires Hibernate bytecode enhancement.
      */
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("profile")
     @Column(columnDefinition = "LONGTEXT")
     private String education;
 
     /**
      * A detailed description of the employee's professional experiences.
      * Stored as `LONGTEXT` to accommodate longer text.
+     * Loaded lazily together with `education`.
      */
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("profile")
     @Column(columnDefinition = "LONGTEXT")
     private String experiences;
 
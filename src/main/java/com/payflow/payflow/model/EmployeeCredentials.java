@@ -0,0 +1,15 @@
+package com.payflow.payflow.model;
+
+/**
+ * An {@link EmployeeSummary} together with the employee's stored password, for login.
+ * Used as a Spring Data interface projection, so a login reads the account and everything its
+ * response needs with one query; the stored password is only ever passed to the password check.
+ */
+public interface EmployeeCredentials extends EmployeeSummary {
+
+    /**
+     * Returns the stored password: a BCrypt hash, or the plain-text password of an account that
+     * has not logged in since passwords were hashed.
+     */
+    String getPassword();
+}
@@ -0,0 +1,33 @@
+package com.payflow.payflow.model;
+
+/**
+ * Lightweight read-only view of an {@link Employee} for hot paths such as login, payroll and
+ * manager lookups. Used as a Spring Data interface projection, so queries returning it select
+ * only these columns and never touch the LONGTEXT profile fields or the password.
+ */
+public interface EmployeeSummary {
+
+    Long getId();
+
+    String getName();
+
+    String getEmail();
+
+    String getUsername();
+
+    String getRole();
+
+    String getStatus();
+
+    String getPosition();
+
+    Long getManagerId();
+
+    Boolean getFirstLogin();
+
+    Integer getLeaveBalance();
+
+    Integer getSalaryDeductionDays();
+
+    Double getMonthlySalary();
+}
@@ -0,0 +1,149 @@
+package com.payflow.payflow.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * JPA Entity representing a notification waiting in the transactional outbox.
+ * A row is written in the same transaction as the leave or payslip change it announces, so the
+ * notification exists if and only if the change was committed. The outbox dispatcher sends it
+ * afterwards and marks it SENT; delivery is at-least-once.
+ * This entity is mapped to the `notification_outbox` table in the database.
+ */
+@Entity
+@Table(name = "notification_outbox")
+public class NotificationOutbox {
+
+    /**
+     * The unique identifier for the outbox record.
+     * It is auto-generated by the database.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_id")
+    private Long outboxId;
+
+    /**
+     * The delivery channel (currently always "EMAIL").
+     */
+    @Column(name = "channel", nullable = false)
+    private String channel;
+
+    /**
+     * The address the notification is sent to.
+     */
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    /**
+     * The subject line of the notification.
+     */
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    /**
+     * The body of the notification.
+     */
+    @Column(name = "body", nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    /**
+     * The kind of record the notification is about (e.g., "LEAVE_REQUEST", "PAYSLIP").
+     */
+    @Column(name = "aggregate_type")
+    private String aggregateType;
+
+    /**
+     * The ID of the record the notification is about.
+     */
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+
+    /**
+     * The delivery status ("PENDING", "SENDING", "SENT" or "FAILED").
+     */
+    @Column(name = "status", nullable = false)
+    private String status;
+
+    /**
+     * The number of delivery attempts made so far.
+     */
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    /**
+     * The earliest time the dispatcher may (re)try the notification.
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * While SENDING, the time after which the claim expires and another dispatcher may pick the row up.
+     */
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    /**
+     * The error of the last failed attempt, if any.
+     */
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    /**
+     * The time the notification was written.
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * The time the notification was delivered.
+     */
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    // Constructors
+    public NotificationOutbox() {}
+
+    // Getters and Setters
+    public Long getOutboxId() { return outboxId; }
+    public void setOutboxId(Long outboxId) { this.outboxId = outboxId; }
+
+    public String getChannel() { return channel; }
+    public void setChannel(String channel) { this.channel = channel; }
+
+    public String getRecipient() { return recipient; }
+    public void setRecipient(String recipient) { this.recipient = recipient; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+
+    public String getAggregateType() { return aggregateType; }
+    public void setAggregateType(String aggregateType) { this.aggregateType = aggregateType; }
+
+    public Long getAggregateId() { return aggregateId; }
+    public void setAggregateId(Long aggregateId) { this.aggregateId = aggregateId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public LocalDateTime getLockedUntil() { return lockedUntil; }
+    public void setLockedUntil(LocalDateTime lockedUntil) { this.lockedUntil = lockedUntil; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+}
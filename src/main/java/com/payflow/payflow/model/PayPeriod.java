@@ -0,0 +1,91 @@
+package com.payflow.payflow.model;
+
+import java.time.Month;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for the numeric pay period key stored on each payslip.
+ * A period is encoded as {@code year * 100 + month} (e.g., 202501 for January 2025), so periods
+ * sort chronologically as plain integers and a range of months is an index range scan.
+ * Month names are the English display names used throughout the API (e.g., "January").
+ */
+public final class PayPeriod {
+
+    /**
+     * The month names accepted by the API, in calendar order.
+     */
+    public static final List<String> MONTH_NAMES = List.of(
+            "January", "February", "March", "April", "May", "June",
+            "July", "August", "September", "October", "November", "December"
+    );
+
+    private static final Map<String, Month> MONTHS_BY_NAME = new HashMap<>();
+
+    static {
+        for (Month month : Month.values()) {
+            MONTHS_BY_NAME.put(MONTH_NAMES.get(month.ordinal()), month);
+        }
+    }
+
+    private PayPeriod() {
+    }
+
+    /**
+     * Returns the month with the given display name, or null if the name is not one of {@link #MONTH_NAMES}.
+     * The match is exact, e.g. "January" but not "JANUARY".
+     */
+    public static Month parseMonth(String monthName) {
+        return monthName == null ? null : MONTHS_BY_NAME.get(monthName);
+    }
+
+    /**
+     * Returns true if the name is one of {@link #MONTH_NAMES}.
+     */
+    public static boolean isMonthName(String monthName) {
+        return parseMonth(monthName) != null;
+    }
+
+    /**
+     * Returns the display name of a month (e.g., "January").
+     */
+    public static String monthName(Month month) {
+        return MONTH_NAMES.get(month.ordinal());
+    }
+
+    /**
+     * Returns the period key of a month.
+     */
+    public static int key(int year, Month month) {
+        return year * 100 + month.getValue();
+    }
+
+    /**
+     * Returns the period key of a month.
+     */
+    public static int key(YearMonth yearMonth) {
+        return key(yearMonth.getYear(), yearMonth.getMonth());
+    }
+
+    /**
+     * Returns the period key of a month given by name.
+     *
+     * @throws IllegalArgumentException if the name is not one of {@link #MONTH_NAMES}.
+     */
+    public static int key(int year, String monthName) {
+        Month month = parseMonth(monthName);
+        if (month == null) {
+            throw new IllegalArgumentException("Invalid month. Must be one of: " + String.join(", ", MONTH_NAMES));
+        }
+        return key(year, month);
+    }
+
+    /**
+     * Returns the month a period key stands for.
+     */
+    public static YearMonth toYearMonth(int key) {
+        return YearMonth.of(key / 100, key % 100);
+    }
+}
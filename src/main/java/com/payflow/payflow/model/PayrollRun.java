@@ -0,0 +1,225 @@
+package com.payflow.payflow.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * JPA Entity representing one month-end payroll or payslip run in the run ledger.
+ * A run is split into ID-range chunks (see {@link PayrollRunChunk}); the ledger records
+ * which chunks have been committed so that a run that dies halfway can be resumed
+ * from the last committed chunk instead of being redone from scratch.
+ * This entity is mapped to the `payroll_run` table in the database.
+ */
+@Entity
+@Table(name = "payroll_run")
+public class PayrollRun {
+
+    /**
+     * The unique identifier for the run.
+     * It is auto-generated by the database.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "run_id")
+    private Long runId;
+
+    /**
+     * The kind of job that owns the run (e.g., "PAYSLIP" for bulk payslips, "PAYROLL" for payroll).
+     */
+    @Column(name = "job_type", nullable = false)
+    private String jobType;
+
+    /**
+     * The month the run generates (e.g., "January").
+     */
+    @Column(name = "month", nullable = false)
+    private String month;
+
+    /**
+     * The year the run generates.
+     */
+    @Column(name = "year", nullable = false)
+    private Integer year;
+
+    /**
+     * Whether existing payslips are replaced by the run.
+     */
+    @Column(name = "regenerate")
+    private Boolean regenerate = false;
+
+    /**
+     * The status of the run ("RUNNING", "COMPLETED" or "FAILED").
+     * FAILED runs, and RUNNING runs whose lease has expired, are resumed by the next run for the
+     * same job, month and year. At most one run per job, month and year is RUNNING.
+     */
+    @Column(name = "status", nullable = false)
+    private String status;
+
+    /**
+     * The number of chunks the run was split into.
+     */
+    @Column(name = "total_chunks")
+    private Integer totalChunks = 0;
+
+    /**
+     * The number of chunks committed so far.
+     */
+    @Column(name = "completed_chunks")
+    private Integer completedChunks = 0;
+
+    /**
+     * The number of payslips generated by the committed chunks.
+     */
+    @Column(name = "generated_count")
+    private Integer generatedCount = 0;
+
+    /**
+     * The number of employees the committed chunks could not generate a payslip for.
+     */
+    @Column(name = "failed_count")
+    private Integer failedCount = 0;
+
+    /**
+     * The date and time when the run was first started.
+     */
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    /**
+     * The date and time when the run was last started, resumed or finished.
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * A token identifying the invocation that claimed the run; chunk checkpoints are only
+     * accepted from the current owner.
+     */
+    @Column(name = "owner")
+    private String owner;
+
+    /**
+     * The time until which the run is claimed by its owner. Renewed with every committed chunk;
+     * once it has passed, a RUNNING run is considered abandoned and may be resumed by another invocation.
+     */
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    // Constructors
+    public PayrollRun() {
+    }
+
+    // Getters and Setters
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public void setRunId(Long runId) {
+        this.runId = runId;
+    }
+
+    public String getJobType() {
+        return jobType;
+    }
+
+    public void setJobType(String jobType) {
+        this.jobType = jobType;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public void setYear(Integer year) {
+        this.year = year;
+    }
+
+    public Boolean getRegenerate() {
+        return regenerate;
+    }
+
+    public void setRegenerate(Boolean regenerate) {
+        this.regenerate = regenerate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getTotalChunks() {
+        return totalChunks;
+    }
+
+    public void setTotalChunks(Integer totalChunks) {
+        this.totalChunks = totalChunks;
+    }
+
+    public Integer getCompletedChunks() {
+        return completedChunks;
+    }
+
+    public void setCompletedChunks(Integer completedChunks) {
+        this.completedChunks = completedChunks;
+    }
+
+    public Integer getGeneratedCount() {
+        return generatedCount;
+    }
+
+    public void setGeneratedCount(Integer generatedCount) {
+        this.generatedCount = generatedCount;
+    }
+
+    public Integer getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(Integer failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(LocalDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+}
@@ -0,0 +1,164 @@
+package com.payflow.payflow.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * JPA Entity representing one ID-range chunk of a {@link PayrollRun}.
+ * A chunk is marked COMMITTED in the same transaction that writes its payslips,
+ * so the ledger never claims work that was rolled back.
+ * This entity is mapped to the `payroll_run_chunk` table in the database.
+ */
+@Entity
+@Table(name = "payroll_run_chunk")
+public class PayrollRunChunk {
+
+    /**
+     * The unique identifier for the chunk record.
+     * It is auto-generated by the database.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "chunk_id")
+    private Long chunkId;
+
+    /**
+     * The ID of the run this chunk belongs to.
+     */
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    /**
+     * The position of the chunk within the run, starting at 0.
+     */
+    @Column(name = "chunk_index", nullable = false)
+    private Integer chunkIndex;
+
+    /**
+     * The lowest employee ID covered by the chunk (inclusive).
+     */
+    @Column(name = "from_employee_id", nullable = false)
+    private Long fromEmployeeId;
+
+    /**
+     * The highest employee ID covered by the chunk (inclusive).
+     */
+    @Column(name = "to_employee_id", nullable = false)
+    private Long toEmployeeId;
+
+    /**
+     * The status of the chunk ("PENDING", "COMMITTED" or "FAILED").
+     */
+    @Column(name = "status", nullable = false)
+    private String status;
+
+    /**
+     * The number of payslips the chunk generated.
+     */
+    @Column(name = "generated_count")
+    private Integer generatedCount = 0;
+
+    /**
+     * The number of employees in the chunk that could not get a payslip.
+     */
+    @Column(name = "failed_count")
+    private Integer failedCount = 0;
+
+    /**
+     * The error that made the last attempt at this chunk roll back, if any.
+     */
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    /**
+     * The date and time when the chunk was committed.
+     */
+    @Column(name = "committed_at")
+    private LocalDateTime committedAt;
+
+    // Constructors
+    public PayrollRunChunk() {
+    }
+
+    // Getters and Setters
+
+    public Long getChunkId() {
+        return chunkId;
+    }
+
+    public void setChunkId(Long chunkId) {
+        this.chunkId = chunkId;
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public void setRunId(Long runId) {
+        this.runId = runId;
+    }
+
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(Integer chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    public Long getFromEmployeeId() {
+        return fromEmployeeId;
+    }
+
+    public void setFromEmployeeId(Long fromEmployeeId) {
+        this.fromEmployeeId = fromEmployeeId;
+    }
+
+    public Long getToEmployeeId() {
+        return toEmployeeId;
+    }
+
+    public void setToEmployeeId(Long toEmployeeId) {
+        this.toEmployeeId = toEmployeeId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getGeneratedCount() {
+        return generatedCount;
+    }
+
+    public void setGeneratedCount(Integer generatedCount) {
+        this.generatedCount = generatedCount;
+    }
+
+    public Integer getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(Integer failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public LocalDateTime getCommittedAt() {
+        return committedAt;
+    }
+
+    public void setCommittedAt(LocalDateTime committedAt) {
+        this.committedAt = committedAt;
+    }
+}
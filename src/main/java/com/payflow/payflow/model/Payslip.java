@@ -42,6 +42,14 @@ public class Payslip {
     @Column(name = "year", nullable = false)
     private Integer year;
 
+    /**
+     * The pay period as a {@code yyyymm} key (e.g., 202501 for January 2025); see {@link PayPeriod}.
+     * Sorts chronologically and is the column period lookups and range scans use.
+     * This field is mandatory.
+     */
+    @Column(name = "period", nullable = false)
+    private Integer period;
+
     /**
      * The final amount paid to the employee after all deductions.
      * This field is mandatory.
@@ -67,6 +75,13 @@ public class Payslip {
     @Column(name = "download_link")
     private String downloadLink;
 
+    /**
+     * The earnings and deductions shown on the payslip, snapshotted from the CTC at generation time.
+     * Null for payslips generated before the breakdown was stored.
+     */
+    @Embedded
+    private PayslipBreakdown breakdown;
+
     // Constructors
     public Payslip() {
     }
@@ -105,6 +120,22 @@ public class Payslip {
         this.year = year;
     }
 
+    public Integer getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(Integer period) {
+        this.period = period;
+    }
+
+    public PayslipBreakdown getBreakdown() {
+        return breakdown;
+    }
+
+    public void setBreakdown(PayslipBreakdown breakdown) {
+        this.breakdown = breakdown;
+    }
+
     public BigDecimal getNetPay() {
         return netPay;
     }
@@ -0,0 +1,137 @@
+package com.payflow.payflow.model;
+
+import com.payflow.payflow.salary.Money;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The earnings and deductions printed on a payslip: the earnings snapshotted from the CTC record
+ * in force when the payslip was generated, and each deduction line as computed by the salary plan,
+ * so the deduction lines add up to the payslip's total deductions. The amounts are stored with the
+ * payslip, so displaying or rendering it needs no CTC lookup and stays unchanged when the CTC is
+ * revised later. Instances are immutable; the columns are not updatable.
+ */
+@Embeddable
+public class PayslipBreakdown {
+
+    /**
+     * The ID of the CTC record the amounts were taken from.
+     */
+    @Column(name = "ctc_id", updatable = false)
+    private Long ctcId;
+
+    /**
+     * Monthly basic salary.
+     */
+    @Column(name = "basic_pay", updatable = false)
+    private BigDecimal basicPay;
+
+    /**
+     * Monthly house rent allowance.
+     */
+    @Column(name = "hra_pay", updatable = false)
+    private BigDecimal hraPay;
+
+    /**
+     * Monthly dearness allowance.
+     */
+    @Column(name = "da_pay", updatable = false)
+    private BigDecimal daPay;
+
+    /**
+     * Monthly special allowance.
+     */
+    @Column(name = "special_allowance_pay", updatable = false)
+    private BigDecimal specialAllowancePay;
+
+    /**
+     * Monthly other allowances.
+     */
+    @Column(name = "other_allowances_pay", updatable = false)
+    private BigDecimal otherAllowancesPay;
+
+    /**
+     * Monthly gross pay (the total CTC spread over the year).
+     */
+    @Column(name = "gross_pay", updatable = false)
+    private BigDecimal grossPay;
+
+    /**
+     * Provident fund deduction. Null if the deduction lines were not stored (see {@link #earningsOf}).
+     */
+    @Column(name = "pf_deduction", updatable = false)
+    private BigDecimal pfDeduction;
+
+    /**
+     * Gratuity deduction. Null if the deduction lines were not stored.
+     */
+    @Column(name = "gratuity_deduction", updatable = false)
+    private BigDecimal gratuityDeduction;
+
+    /**
+     * Loss-of-pay deduction for leave. Null if the deduction lines were not stored.
+     */
+    @Column(name = "leave_deduction", updatable = false)
+    private BigDecimal leaveDeduction;
+
+    protected PayslipBreakdown() {
+    }
+
+    private PayslipBreakdown(CTCDetails ctc, BigDecimal pfDeduction, BigDecimal gratuityDeduction, BigDecimal leaveDeduction) {
+        this.ctcId = ctc.getCtcId();
+        this.basicPay = monthly(ctc.getBasicSalary());
+        this.hraPay = monthly(ctc.getHra());
+        this.daPay = monthly(ctc.getDa());
+        this.specialAllowancePay = monthly(ctc.getSpecialAllowance());
+        this.otherAllowancesPay = monthly(ctc.getAllowances());
+        this.grossPay = monthly(ctc.getTotalCTC());
+        this.pfDeduction = pfDeduction;
+        this.gratuityDeduction = gratuityDeduction;
+        this.leaveDeduction = leaveDeduction;
+    }
+
+    /**
+     * Builds the breakdown of a newly calculated payslip. The earnings are the monthly amounts of the
+     * CTC record: each annual component divided by 12, rounded half-up to two decimals. The deductions
+     * are the salary plan's deduction lines, in {@link Money} minor units.
+     *
+     * @param ctc The CTC record in force for the payslip's month.
+     * @param pfDeduction The provident fund deduction.
+     * @param gratuityDeduction The gratuity deduction.
+     * @param leaveDeduction The loss-of-pay deduction for leave.
+     * @return The breakdown.
+     */
+    public static PayslipBreakdown of(CTCDetails ctc, long pfDeduction, long gratuityDeduction, long leaveDeduction) {
+        return new PayslipBreakdown(ctc, Money.toBigDecimal(pfDeduction), Money.toBigDecimal(gratuityDeduction),
+                Money.toBigDecimal(leaveDeduction));
+    }
+
+    /**
+     * Builds the earnings of a payslip generated before its breakdown was stored, from a CTC record.
+     * Only the payslip's total deductions are known, so the deduction lines are null.
+     *
+     * @param ctc The CTC record in force for the payslip's month.
+     * @return The breakdown, without deduction lines.
+     */
+    public static PayslipBreakdown earningsOf(CTCDetails ctc) {
+        return new PayslipBreakdown(ctc, null, null, null);
+    }
+
+    private static BigDecimal monthly(BigDecimal annual) {
+        return Money.toBigDecimal(Money.divideByWhole(Money.of(annual, RoundingMode.HALF_UP), 12, RoundingMode.HALF_UP));
+    }
+
+    public Long getCtcId() { return ctcId; }
+    public BigDecimal getBasicPay() { return basicPay; }
+    public BigDecimal getHraPay() { return hraPay; }
+    public BigDecimal getDaPay() { return daPay; }
+    public BigDecimal getSpecialAllowancePay() { return specialAllowancePay; }
+    public BigDecimal getOtherAllowancesPay() { return otherAllowancesPay; }
+    public BigDecimal getGrossPay() { return grossPay; }
+    public BigDecimal getPfDeduction() { return pfDeduction; }
+    public BigDecimal getGratuityDeduction() { return gratuityDeduction; }
+    public BigDecimal getLeaveDeduction() { return leaveDeduction; }
+}
@@ -1,5 +1,6 @@
 package com.payflow.payflow.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 
 /**
@@ -24,8 +25,10 @@ public class User {
     private String username;
 
     /**
-     * The password for the user's account.
+     * The password for the user's account: a BCrypt hash, or the plain-text password
+     * of an account that has not logged in since passwords were hashed. Never written to responses.
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
 
     /**
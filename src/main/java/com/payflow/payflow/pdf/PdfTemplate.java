@@ -0,0 +1,259 @@
+package com.payflow.payflow.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A precompiled single-page PDF layout with named text slots.
+ * The layout is described once through {@link Builder} and compiled into byte segments:
+ * everything that does not depend on the data (document header, page and font objects,
+ * labels, lines and text operators) is encoded up front, and only the slot values are
+ * written per document. Rendering streams straight to the given OutputStream and never
+ * builds the document in memory.
+ *
+ * Text uses the standard Helvetica fonts with WinAnsiEncoding; characters outside
+ * Latin-1 are written as '?'. Instances are immutable and safe to share between threads.
+ */
+public final class PdfTemplate {
+
+    /** Regular font resource name. */
+    public static final String FONT_REGULAR = "F1";
+
+    /** Bold font resource name. */
+    public static final String FONT_BOLD = "F2";
+
+    // Object numbers of the fixed document structure
+    private static final int CONTENT_OBJECT = 6;
+    private static final int LENGTH_OBJECT = 7;
+    private static final int OBJECT_COUNT = 7;
+
+    private static final byte[] STREAM_END = ascii("\nendstream\nendobj\n");
+
+    private final byte[] prefix;
+    private final long[] objectOffsets;
+    private final List<Object> segments;
+    private final Map<String, Integer> slots;
+
+    private PdfTemplate(byte[] prefix, long[] objectOffsets, List<Object> segments, Map<String, Integer> slots) {
+        this.prefix = prefix;
+        this.objectOffsets = objectOffsets;
+        this.segments = segments;
+        this.slots = slots;
+    }
+
+    /**
+     * Starts a new layout for a page of the given size in points.
+     *
+     * @param width The page width (e.g., 595 for A4).
+     * @param height The page height (e.g., 842 for A4).
+     * @return A builder for the layout.
+     */
+    public static Builder builder(int width, int height) {
+        return new Builder(width, height);
+    }
+
+    /**
+     * Returns the index of a named slot, to be used as the position in the values array passed to {@link #render}.
+     *
+     * @param name The slot name given to {@link Builder#slot}.
+     * @return The index of the slot.
+     * @throws IllegalArgumentException if the template has no slot with that name.
+     */
+    public int slotIndex(String name) {
+        Integer index = slots.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown PDF template slot: " + name);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the number of slots in the template.
+     */
+    public int slotCount() {
+        return slots.size();
+    }
+
+    /**
+     * Renders a document by streaming the compiled layout with the given slot values to the output.
+     * The output is not closed.
+     *
+     * @param values The slot values, indexed by {@link #slotIndex}; null values are rendered as empty text.
+     * @param out The stream to write the PDF to.
+     * @throws IOException if writing to the stream fails.
+     */
+    public void render(String[] values, OutputStream out) throws IOException {
+        out.write(prefix);
+
+        long contentLength = 0;
+        for (Object segment : segments) {
+            if (segment instanceof byte[] bytes) {
+                out.write(bytes);
+                contentLength += bytes.length;
+            } else {
+                contentLength += writeText(values[(Integer) segment], out);
+            }
+        }
+        out.write(STREAM_END);
+
+        long lengthOffset = prefix.length + contentLength + STREAM_END.length;
+        byte[] lengthObject = ascii(LENGTH_OBJECT + " 0 obj\n" + contentLength + "\nendobj\n");
+        out.write(lengthObject);
+        long xrefOffset = lengthOffset + lengthObject.length;
+
+        StringBuilder xref = new StringBuilder(64 + 20 * (OBJECT_COUNT + 1));
+        xref.append("xref\n0 ").append(OBJECT_COUNT + 1).append('\n');
+        xref.append("0000000000 65535 f \n");
+        for (int i = 1; i < OBJECT_COUNT; i++) {
+            appendXrefEntry(xref, objectOffsets[i]);
+        }
+        appendXrefEntry(xref, lengthOffset);
+        xref.append("trailer\n<< /Size ").append(OBJECT_COUNT + 1).append(" /Root 1 0 R >>\n");
+        xref.append("startxref\n").append(xrefOffset).append("\n%%EOF\n");
+        out.write(ascii(xref.toString()));
+    }
+
+    /**
+     * Writes a value as the body of a PDF string literal and returns the number of bytes written.
+     */
+    private static int writeText(String value, OutputStream out) throws IOException {
+        if (value == null) {
+            return 0;
+        }
+        int written = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                out.write('\\');
+                written++;
+            }
+            out.write(c < 0x20 || c > 0xFF ? '?' : c);
+            written++;
+        }
+        return written;
+    }
+
+    private static void appendXrefEntry(StringBuilder xref, long offset) {
+        String digits = Long.toString(offset);
+        for (int i = digits.length(); i < 10; i++) {
+            xref.append('0');
+        }
+        xref.append(digits).append(" 00000 n \n");
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Describes the layout of a template. Coordinates are in points from the bottom-left corner.
+     */
+    public static final class Builder {
+
+        private final int width;
+        private final int height;
+        private final List<Object> segments = new ArrayList<>();
+        private final Map<String, Integer> slots = new LinkedHashMap<>();
+        private final StringBuilder pending = new StringBuilder();
+
+        private Builder(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * Adds fixed text.
+         */
+        public Builder text(String font, int size, int x, int y, String text) {
+            pending.append("BT /").append(font).append(' ').append(size).append(" Tf ")
+                    .append(x).append(' ').append(y).append(" Td (");
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '(' || c == ')' || c == '\\') {
+                    pending.append('\\');
+                }
+                pending.append(c < 0x20 || c > 0xFF ? '?' : c);
+            }
+            pending.append(") Tj ET\n");
+            return this;
+        }
+
+        /**
+         * Adds a named text slot whose value is supplied at render time.
+         */
+        public Builder slot(String font, int size, int x, int y, String name) {
+            if (slots.containsKey(name)) {
+                throw new IllegalArgumentException("Duplicate PDF template slot: " + name);
+            }
+            pending.append("BT /").append(font).append(' ').append(size).append(" Tf ")
+                    .append(x).append(' ').append(y).append(" Td (");
+            flush();
+            int index = slots.size();
+            slots.put(name, index);
+            segments.add(index);
+            pending.append(") Tj ET\n");
+            return this;
+        }
+
+        /**
+         * Adds a labelled value: fixed label text followed by a slot at {@code valueX} on the same line.
+         */
+        public Builder field(int size, int x, int valueX, int y, String label, String name) {
+            return text(FONT_REGULAR, size, x, y, label).slot(FONT_REGULAR, size, valueX, y, name);
+        }
+
+        /**
+         * Adds a horizontal rule.
+         */
+        public Builder rule(int x1, int x2, int y) {
+            pending.append("0.5 w ").append(x1).append(' ').append(y).append(" m ")
+                    .append(x2).append(' ').append(y).append(" l S\n");
+            return this;
+        }
+
+        /**
+         * Compiles the layout into an immutable template.
+         */
+        public PdfTemplate compile() {
+            flush();
+
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            long[] offsets = new long[OBJECT_COUNT + 1];
+            writeRaw(header, "%PDF-1.4\n%âãÏÓ\n");
+            offsets[1] = header.size();
+            writeRaw(header, "1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n");
+            offsets[2] = header.size();
+            writeRaw(header, "2 0 obj\n<< /Type /Pages /Kids [3 0 R] /Count 1 >>\nendobj\n");
+            offsets[3] = header.size();
+            writeRaw(header, "3 0 obj\n<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + width + " " + height + "]"
+                    + " /Resources << /Font << /" + FONT_REGULAR + " 4 0 R /" + FONT_BOLD + " 5 0 R >> >>"
+                    + " /Contents " + CONTENT_OBJECT + " 0 R >>\nendobj\n");
+            offsets[4] = header.size();
+            writeRaw(header, "4 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>\nendobj\n");
+            offsets[5] = header.size();
+            writeRaw(header, "5 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>\nendobj\n");
+            offsets[CONTENT_OBJECT] = header.size();
+            writeRaw(header, CONTENT_OBJECT + " 0 obj\n<< /Length " + LENGTH_OBJECT + " 0 R >>\nstream\n");
+
+            return new PdfTemplate(header.toByteArray(), offsets, List.copyOf(segments), Map.copyOf(slots));
+        }
+
+        private void flush() {
+            if (pending.length() > 0) {
+                segments.add(ascii(pending.toString()));
+                pending.setLength(0);
+            }
+        }
+
+        private static void writeRaw(ByteArrayOutputStream out, String text) {
+            byte[] bytes = ascii(text);
+            out.write(bytes, 0, bytes.length);
+        }
+    }
+}
@@ -36,14 +36,12 @@ public interface CTCDetailsRepository extends JpaRepository<CTCDetails, Long> {
             @Param("employeeId") Long employeeId,
             @Param("date") LocalDate date);
             
-    // Find CTC records that are active within a date range for payslip generation
-    // This checks if the CTC is effective for any part of the specified month
-    @Query("SELECT c FROM CTCDetails c WHERE c.employeeId = :employeeId AND " +
-           "((c.effectiveFrom <= :monthEnd AND (c.effectiveTo IS NULL OR c.effectiveTo >= :monthStart)) OR " +
-           "(c.effectiveFrom <= :monthStart AND (c.effectiveTo IS NULL OR c.effectiveTo >= :monthStart))) " +
-           "ORDER BY c.effectiveFrom DESC")
-    List<CTCDetails> findActiveRecordsByEmployeeIdAndDateRange(
-            @Param("employeeId") Long employeeId,
+    // Find the CTC records of every employee that are active for any part of the given range.
+    // Used by bulk payslip generation; rows are ordered so the latest record per employee comes first.
+    @Query("SELECT c FROM CTCDetails c WHERE c.effectiveFrom <= :monthEnd AND " +
+           "(c.effectiveTo IS NULL OR c.effectiveTo >= :monthStart) " +
+           "ORDER BY c.employeeId, c.effectiveFrom DESC")
+    List<CTCDetails> findActiveRecordsByDateRange(
             @Param("monthStart") LocalDate monthStart,
             @Param("monthEnd") LocalDate monthEnd);
 }
@@ -1,24 +1,74 @@
 package com.payflow.payflow.repository;
 
 import com.payflow.payflow.model.Employee;
+import com.payflow.payflow.model.EmployeeCredentials;
+import com.payflow.payflow.model.EmployeeSummary;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
-    Optional<Employee> findByNameAndPassword(String name, String password);
-    Optional<Employee> findByEmailAndPassword(String email, String password);
-
     // ✅ NEW: Find employee by email only (for duplicate checking)
     Optional<Employee> findByEmail(String email);
 
     // ✅ NEW: Find employees by manager ID
+    // The profile fields are fetched in the same query because the result is returned to clients as a whole
+    @EntityGraph(attributePaths = {"education", "experiences"})
     List<Employee> findByManagerId(Long managerId);
 
     // ✅ NEW: Find employees without manager (unassigned)
+    @EntityGraph(attributePaths = {"education", "experiences"})
     List<Employee> findByManagerIdIsNull();
 
-    // ✅ NEW: Find an employee by username and password
-    Optional<Employee> findByUsernameAndPassword(String username, String password);
+    // Find all employees including their lazily loaded profile fields, in one query
+    @EntityGraph(attributePaths = {"education", "experiences"})
+    @Query("SELECT e FROM Employee e")
+    List<Employee> findAllWithProfile();
+
+    // Summary projections for hot paths: only the summary columns are selected
+    List<EmployeeSummary> findSummaryByManagerId(Long managerId);
+
+    Optional<EmployeeSummary> findSummaryById(Long id);
+
+    // Summaries of everyone below a manager down to maxDepth levels, nearest first: one range scan of org_closure
+    @Query(value = "SELECT e.id AS id, e.name AS name, e.email AS email, e.username AS username, e.role AS role, " +
+                   "e.status AS status, e.position AS position, e.manager_id AS managerId, e.first_login AS firstLogin, " +
+                   "e.leave_balance AS leaveBalance, e.salary_deduction_days AS salaryDeductionDays, " +
+                   "e.monthly_salary AS monthlySalary " +
+                   "FROM org_closure c JOIN employee e ON e.id = c.descendant_id " +
+                   "WHERE c.ancestor_id = :managerId AND c.depth BETWEEN 1 AND :maxDepth ORDER BY c.depth, e.id",
+           nativeQuery = true)
+    List<EmployeeSummary> findSubtreeSummaries(@Param("managerId") Long managerId, @Param("maxDepth") int maxDepth);
+
+    // Login lookups: the summary columns plus the stored password, which is checked by PasswordHasher
+    Optional<EmployeeCredentials> findCredentialsByEmail(String email);
+
+    Optional<EmployeeCredentials> findCredentialsByUsername(String username);
+
+    // Replace a stored password, unless it was changed since it was read (returns 0 in that case)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Employee e SET e.password = :newPassword WHERE e.id = :id AND e.password = :oldPassword")
+    int updatePassword(@Param("id") Long id, @Param("oldPassword") String oldPassword,
+                       @Param("newPassword") String newPassword);
+
+    // Find all employees with the given status (e.g. "ACTIVE"), ignoring case
+    List<Employee> findByStatusIgnoreCase(String status);
+
+    // Find the IDs of all employees in ascending order (used to split payroll runs into ID-range chunks)
+    @Query("SELECT e.id FROM Employee e ORDER BY e.id")
+    List<Long> findAllIds();
+
+    // Find the manager of every employee as (employee ID, manager ID) pairs, for the reporting hierarchy cache
+    @Query("SELECT e.id, e.managerId FROM Employee e")
+    List<Object[]> findAllReportingLines();
+
+    // Find all employees whose ID falls within an inclusive range
+    List<Employee> findByIdBetween(Long fromId, Long toId);
 }
@@ -0,0 +1,213 @@
+package com.payflow.payflow.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.*;
+
+/**
+ * Builds keyset-paginated list queries that select only the requested columns.
+ * Rows are read in ascending ID order starting after a cursor (the last ID of the previous
+ * page), so every page is an index range scan no matter how deep the client pages, and the
+ * query selects a tuple of the requested attributes instead of whole entities.
+ *
+ * @param <T> The entity type.
+ */
+public final class KeysetQuery<T> {
+
+    /** Page size used when the client does not ask for one. */
+    public static final int DEFAULT_LIMIT = 50;
+
+    /** Largest page size a client may ask for. */
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * Builds a predicate for a query over the entity.
+     */
+    @FunctionalInterface
+    public interface Filter<T> {
+        Predicate toPredicate(CriteriaBuilder cb, CriteriaQuery<?> query, Root<T> root);
+    }
+
+    private final EntityManager entityManager;
+    private final Class<T> entityType;
+    private final String idAttribute;
+    private final List<Filter<T>> filters = new ArrayList<>();
+    private List<String> fields = Collections.emptyList();
+    private Long afterId;
+
+    private KeysetQuery(EntityManager entityManager, Class<T> entityType, String idAttribute) {
+        this.entityManager = entityManager;
+        this.entityType = entityType;
+        this.idAttribute = idAttribute;
+    }
+
+    /**
+     * Starts a query over an entity whose numeric ID attribute is named {@code id}.
+     */
+    public static <T> KeysetQuery<T> from(EntityManager entityManager, Class<T> entityType) {
+        return new KeysetQuery<>(entityManager, entityType, "id");
+    }
+
+    /**
+     * Sets the attributes to select. The ID is always selected, because it is the cursor.
+     * Callers must validate the names; they are used as attribute names as given.
+     */
+    public KeysetQuery<T> select(List<String> fields) {
+        this.fields = fields;
+        return this;
+    }
+
+    /**
+     * Adds an equality filter on an attribute; a null value adds no filter.
+     */
+    public KeysetQuery<T> whereEquals(String attribute, Object value) {
+        if (value != null) {
+            filters.add((cb, query, root) -> cb.equal(root.get(attribute), value));
+        }
+        return this;
+    }
+
+    /**
+     * Adds a custom filter.
+     */
+    public KeysetQuery<T> where(Filter<T> filter) {
+        filters.add(filter);
+        return this;
+    }
+
+    /**
+     * Starts the page after the given ID; null starts at the beginning.
+     */
+    public KeysetQuery<T> after(Long afterId) {
+        this.afterId = afterId;
+        return this;
+    }
+
+    /**
+     * Runs the query and returns one page of rows.
+     *
+     * @param limit The maximum number of rows in the page.
+     * @return The page, with the cursor of the next page if there are more rows.
+     */
+    public Page fetch(int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityType);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root.get(idAttribute).alias(idAttribute));
+        for (String field : fields) {
+            if (!field.equals(idAttribute)) {
+                selections.add(root.get(field).alias(field));
+            }
+        }
+        query.multiselect(selections);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(root.<Long>get(idAttribute), afterId));
+        }
+        for (Filter<T> filter : filters) {
+            predicates.add(filter.toPredicate(cb, query, root));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.asc(root.get(idAttribute)));
+
+        // Read one row more than requested to know whether there is a next page
+        List<Tuple> tuples = entityManager.createQuery(query).setMaxResults(limit + 1).getResultList();
+        boolean hasMore = tuples.size() > limit;
+
+        List<Map<String, Object>> rows = new ArrayList<>(Math.min(tuples.size(), limit));
+        Long lastId = null;
+        for (int i = 0; i < tuples.size() && i < limit; i++) {
+            Tuple tuple = tuples.get(i);
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (Selection<?> selection : selections) {
+                row.put(selection.getAlias(), tuple.get(selection.getAlias()));
+            }
+            lastId = (Long) row.get(idAttribute);
+            rows.add(row);
+        }
+        return new Page(rows, hasMore ? lastId : null);
+    }
+
+    /**
+     * Parses a comma-separated field list against the allowed attributes.
+     *
+     * @param fields The requested fields, or null/blank for the defaults.
+     * @param allowed The attributes that may be requested.
+     * @param defaults The attributes returned when no fields are requested.
+     * @return The attributes to select, in the requested order.
+     * @throws IllegalArgumentException if a requested field is not allowed.
+     */
+    public static List<String> parseFields(String fields, Collection<String> allowed, List<String> defaults) {
+        if (fields == null || fields.isBlank()) {
+            return defaults;
+        }
+        List<String> parsed = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty() || parsed.contains(name)) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown or restricted field: " + name + ". Allowed fields: " + allowed);
+            }
+            parsed.add(name);
+        }
+        return parsed.isEmpty() ? defaults : parsed;
+    }
+
+    /**
+     * Clamps a requested page size to the range 1..{@link #MAX_LIMIT}, defaulting to {@link #DEFAULT_LIMIT}.
+     */
+    public static int limit(Integer requested) {
+        return requested == null ? DEFAULT_LIMIT : Math.max(1, Math.min(requested, MAX_LIMIT));
+    }
+
+    /**
+     * One page of a keyset-paginated list.
+     */
+    public static final class Page {
+
+        private final List<Map<String, Object>> rows;
+        private final Long nextCursor;
+
+        Page(List<Map<String, Object>> rows, Long nextCursor) {
+            this.rows = rows;
+            this.nextCursor = nextCursor;
+        }
+
+        /**
+         * Returns the rows of the page, each a map of the selected attributes.
+         */
+        public List<Map<String, Object>> getRows() {
+            return rows;
+        }
+
+        /**
+         * Returns the cursor to pass as {@code afterId} for the next page, or null on the last page.
+         */
+        public Long getNextCursor() {
+            return nextCursor;
+        }
+
+        /**
+         * Returns the page as a response map with "success", "data", "nextCursor" and "hasMore".
+         */
+        public Map<String, Object> toResponse() {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", rows);
+            response.put("nextCursor", nextCursor);
+            response.put("hasMore", nextCursor != null);
+            return response;
+        }
+    }
+}
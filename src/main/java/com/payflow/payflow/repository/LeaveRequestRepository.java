@@ -1,17 +1,38 @@
 package com.payflow.payflow.repository;
 
 import com.payflow.payflow.Entity.LeaveRequest;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long> {
     List<LeaveRequest> findByEmployeeId(Long employeeId);
     List<LeaveRequest> findByEmployeeIdIn(List<Long> employeeIds);
     List<LeaveRequest> findByEmployeeEmail(String employeeEmail);
     List<LeaveRequest> findByEmployeeEmailIn(List<String> employeeEmails);
+    List<LeaveRequest> findByStatusIgnoreCase(String status);
 
-    List<LeaveRequest> findByEmployeeIdAndStatusAndStartDateBetween(
-            Long employeeId, String status, LocalDate startDate, LocalDate endDate);
+    // One page of the leave requests of a manager's direct reports, in ID order after a cursor, in one join.
+    // Null filters match everything; a leave matches the date range if it overlaps it.
+    @Query("SELECT l FROM LeaveRequest l JOIN Employee e ON e.id = l.employeeId " +
+           "WHERE e.managerId = :managerId AND l.id > :afterId " +
+           "AND (:status IS NULL OR l.status = :status) " +
+           "AND (:from IS NULL OR l.endDate >= :from) " +
+           "AND (:to IS NULL OR l.startDate <= :to) " +
+           "ORDER BY l.id")
+    List<LeaveRequest> findTeamLeaves(@Param("managerId") Long managerId, @Param("status") String status,
+                                      @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                      @Param("afterId") Long afterId, Limit limit);
+
+    // Locks the row until the transaction ends, so concurrent status changes are applied one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM LeaveRequest l WHERE l.id = :id")
+    Optional<LeaveRequest> findByIdForUpdate(@Param("id") Long id);
 }
@@ -0,0 +1,57 @@
+package com.payflow.payflow.repository;
+
+import com.payflow.payflow.model.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for the NotificationOutbox entity.
+ * Provides methods to interact with the notification_outbox table in the database.
+ */
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * Lock the next batch of notifications that are due: pending rows whose retry time has come,
+     * and rows whose SENDING claim has expired because the node sending them went away.
+     * Rows locked by another dispatcher are skipped, so several nodes can drain the outbox at once.
+     * Must be called inside a transaction.
+     *
+     * @param now The current time.
+     * @param limit The maximum number of rows to lock.
+     * @return The locked rows in insertion order.
+     */
+    @Query(value = "SELECT * FROM notification_outbox " +
+                   "WHERE (status = 'PENDING' AND next_attempt_at <= :now) " +
+                   "OR (status = 'SENDING' AND locked_until < :now) " +
+                   "ORDER BY outbox_id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutbox> lockDueBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Mark a claimed notification as sent.
+     *
+     * @param outboxId The ID of the outbox record.
+     * @param sentAt The time of delivery.
+     * @return The number of rows updated (0 if the claim was lost in the meantime).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutbox o SET o.status = 'SENT', o.sentAt = :sentAt, o.lockedUntil = NULL, " +
+           "o.attempts = o.attempts + 1 WHERE o.outboxId = :outboxId AND o.status = 'SENDING'")
+    int markSent(@Param("outboxId") Long outboxId, @Param("sentAt") LocalDateTime sentAt);
+
+    /**
+     * Count the notifications in a status.
+     *
+     * @param status The status (e.g., "PENDING").
+     * @return The number of notifications.
+     */
+    long countByStatus(String status);
+}
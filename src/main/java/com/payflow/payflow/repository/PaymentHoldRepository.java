@@ -32,6 +32,14 @@ public interface PaymentHoldRepository extends JpaRepository<PaymentHold, Long>
      * @return A list of all payment holds.
      */
     List<PaymentHold> findAll();
+
+    /**
+     * Find the IDs of all employees that currently have a payment hold.
+     * 
+     * @return A list of employee IDs with a payment hold.
+     */
+    @Query("SELECT ph.employeeId FROM PaymentHold ph")
+    List<Long> findAllEmployeeIds();
     
     /**
      * Delete a payment hold by employee ID.
@@ -0,0 +1,32 @@
+package com.payflow.payflow.repository;
+
+import com.payflow.payflow.model.PayrollRunChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for the PayrollRunChunk entity.
+ * Provides methods to interact with the payroll_run_chunk ledger table in the database.
+ */
+@Repository
+public interface PayrollRunChunkRepository extends JpaRepository<PayrollRunChunk, Long> {
+
+    /**
+     * Find all chunks of a run in chunk order.
+     *
+     * @param runId The ID of the run.
+     * @return A list of chunks.
+     */
+    List<PayrollRunChunk> findByRunIdOrderByChunkIndex(Long runId);
+
+    /**
+     * Find the chunks of a run that are not in the given status, in chunk order.
+     *
+     * @param runId The ID of the run.
+     * @param status The status to exclude (e.g., "COMMITTED").
+     * @return A list of chunks still to be processed.
+     */
+    List<PayrollRunChunk> findByRunIdAndStatusNotOrderByChunkIndex(Long runId, String status);
+}
@@ -0,0 +1,68 @@
+package com.payflow.payflow.repository;
+
+import com.payflow.payflow.model.PayrollRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for the PayrollRun entity.
+ * Provides methods to interact with the payroll_run ledger table in the database.
+ */
+@Repository
+public interface PayrollRunRepository extends JpaRepository<PayrollRun, Long> {
+
+    /**
+     * Find the most recently started run of a job for a month and year that is in one of the given statuses.
+     *
+     * @param jobType The kind of job (e.g., "PAYSLIP", "PAYROLL").
+     * @param month The month of the run.
+     * @param year The year of the run.
+     * @param statuses The statuses to match (e.g., "RUNNING", "FAILED").
+     * @return An Optional containing the latest matching run, or empty if there is none.
+     */
+    Optional<PayrollRun> findFirstByJobTypeAndMonthAndYearAndStatusInOrderByStartedAtDesc(
+            String jobType, String month, Integer year, Collection<String> statuses);
+
+    /**
+     * Find all runs for a month and year, newest first.
+     *
+     * @param month The month of the runs.
+     * @param year The year of the runs.
+     * @return A list of runs.
+     */
+    List<PayrollRun> findByMonthAndYearOrderByStartedAtDesc(String month, Integer year);
+
+    /**
+     * Claim a run for an invocation, if it is FAILED or its lease has expired.
+     * The conditional update is atomic, so of two invocations resuming the same run only one claims it.
+     *
+     * @param runId The ID of the run.
+     * @param owner The token of the claiming invocation.
+     * @param now The current time.
+     * @param leaseUntil The time until which the run is claimed.
+     * @return The number of rows updated (0 if another invocation is processing the run).
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE PayrollRun r SET r.status = 'RUNNING', r.owner = :owner, r.leaseUntil = :leaseUntil, r.updatedAt = :now " +
+           "WHERE r.runId = :runId AND (r.status = 'FAILED' OR r.leaseUntil IS NULL OR r.leaseUntil < :now)")
+    int claim(@Param("runId") Long runId, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Extend the lease of a run, if it is still RUNNING and claimed by the given owner.
+     *
+     * @return The number of rows updated (0 if the run was taken over or finished).
+     */
+    @Modifying
+    @Query("UPDATE PayrollRun r SET r.leaseUntil = :leaseUntil " +
+           "WHERE r.runId = :runId AND r.owner = :owner AND r.status = 'RUNNING'")
+    int renewLease(@Param("runId") Long runId, @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil);
+}
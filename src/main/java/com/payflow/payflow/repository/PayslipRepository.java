@@ -1,21 +1,70 @@
 package com.payflow.payflow.repository;
 
 import com.payflow.payflow.model.Payslip;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PayslipRepository extends JpaRepository<Payslip, Long> {
 
-    // Find a payslip by employee, month, and year
-    Optional<Payslip> findByEmployeeIdAndMonthAndYear(Long employeeId, String month, Integer year);
+    // Find a payslip by employee and yyyymm period key
+    Optional<Payslip> findByEmployeeIdAndPeriod(Long employeeId, Integer period);
 
-    // Find all payslips for an employee, sorted by year and month
-    List<Payslip> findByEmployeeIdOrderByYearDescMonthDesc(Long employeeId);
+    // Find the IDs of all employees that already have a payslip for a given period
+    @Query("SELECT p.employeeId FROM Payslip p WHERE p.period = :period")
+    List<Long> findEmployeeIdsByPeriod(@Param("period") Integer period);
 
-    // Delete all payslips for a given month and year
+    // Find all payslips for an employee, newest period first
+    List<Payslip> findByEmployeeIdOrderByPeriodDesc(Long employeeId);
+
+    // Find an employee's most recent payslips, newest period first (e.g., Limit.of(12) for the last 12)
+    List<Payslip> findByEmployeeIdOrderByPeriodDesc(Long employeeId, Limit limit);
+
+    // Find an employee's payslips within an inclusive range of periods, newest first
+    List<Payslip> findByEmployeeIdAndPeriodBetweenOrderByPeriodDesc(Long employeeId, Integer fromPeriod, Integer toPeriod);
+
+    // Find the IDs of employees within an inclusive ID range that already have a payslip for a given period
+    @Query("SELECT p.employeeId FROM Payslip p WHERE p.period = :period " +
+           "AND p.employeeId BETWEEN :fromId AND :toId")
+    List<Long> findEmployeeIdsByPeriodAndEmployeeIdBetween(
+            @Param("period") Integer period,
+            @Param("fromId") Long fromId,
+            @Param("toId") Long toId);
+
+    // Delete the payslips for a given period of employees within an inclusive ID range
+    @Modifying
+    @Query("DELETE FROM Payslip p WHERE p.period = :period " +
+           "AND p.employeeId BETWEEN :fromId AND :toId")
+    int deleteByPeriodAndEmployeeIdBetween(
+            @Param("period") Integer period,
+            @Param("fromId") Long fromId,
+            @Param("toId") Long toId);
+
+    // Check whether any payslip exists for a given period
+    boolean existsByPeriod(Integer period);
+
+    // Stream the payslips for a given period in employee order, each with its employee. A fetch size of Integer.MIN_VALUE
+    // makes the MySQL driver stream rows from the server instead of buffering the whole result, so the stream must be
+    // consumed inside a transaction, closed when done, and no other query may run on the connection while it is open.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p, e FROM Payslip p JOIN Employee e ON e.id = p.employeeId " +
+           "WHERE p.period = :period ORDER BY p.employeeId")
+    Stream<Object[]> streamWithEmployeeByPeriod(@Param("period") Integer period);
+
+    // Delete all payslips for a given period
     @Transactional
-    void deleteByMonthAndYear(String month, Integer year);
+    void deleteByPeriod(Integer period);
 }
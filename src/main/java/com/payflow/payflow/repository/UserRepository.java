@@ -2,7 +2,11 @@ package com.payflow.payflow.repository;
 
 import com.payflow.payflow.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -28,4 +32,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return A List of User objects matching the specified role.
      */
     List<User> findByRole(String role);
+
+    /**
+     * Replaces a user's stored password, unless it was changed since it was read.
+     * Used to store the upgraded hash after a login, without overwriting a concurrent password reset.
+     * @param id The ID of the user.
+     * @param oldPassword The stored password the login was checked against.
+     * @param newPassword The new stored password.
+     * @return The number of rows updated (0 if the password was changed in the meantime).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :oldPassword")
+    int updatePassword(@Param("id") Long id, @Param("oldPassword") String oldPassword,
+                       @Param("newPassword") String newPassword);
 }
@@ -0,0 +1,126 @@
+package com.payflow.payflow.salary;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.function.ToIntFunction;
+
+/**
+ * An arithmetic expression over the named values of a {@link SalaryPlan}.
+ * Formulas are only a description; {@link SalaryPlan.Builder#compile()} turns each of them into an
+ * {@link Evaluator} with every name resolved to a slot index, so evaluating a plan does no lookups.
+ * Values are fixed-point {@link Money} amounts (two decimal places, held in a {@code long});
+ * inputs that were not set are zero. Operations that can lose precision take an explicit rounding mode.
+ */
+@FunctionalInterface
+public interface Formula {
+
+    /**
+     * Compiles the formula.
+     *
+     * @param slots Resolves a value name to its slot index; fails for names not defined before the formula.
+     * @return The compiled formula.
+     */
+    Evaluator compile(ToIntFunction<String> slots);
+
+    /**
+     * A compiled formula, evaluated against the slot values of one employee.
+     */
+    @FunctionalInterface
+    interface Evaluator {
+        long evaluate(long[] values);
+    }
+
+    /**
+     * The value of an input or of a line defined earlier in the plan.
+     */
+    static Formula ref(String name) {
+        return slots -> {
+            int slot = slots.applyAsInt(name);
+            return values -> values[slot];
+        };
+    }
+
+    /**
+     * A constant amount.
+     *
+     * @throws ArithmeticException if the amount has more than two decimal places.
+     */
+    static Formula constant(BigDecimal value) {
+        long amount = Money.of(value, RoundingMode.UNNECESSARY);
+        return slots -> values -> amount;
+    }
+
+    /**
+     * A constant whole number.
+     */
+    static Formula constant(long value) {
+        long amount = Money.of(value);
+        return slots -> values -> amount;
+    }
+
+    /**
+     * The sum of the given formulas.
+     */
+    static Formula sum(Formula... terms) {
+        return slots -> {
+            Evaluator[] compiled = new Evaluator[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                compiled[i] = terms[i].compile(slots);
+            }
+            return values -> {
+                long total = 0;
+                for (Evaluator term : compiled) {
+                    total = Money.add(total, term.evaluate(values));
+                }
+                return total;
+            };
+        };
+    }
+
+    /**
+     * This formula minus another.
+     */
+    default Formula minus(Formula other) {
+        return slots -> {
+            Evaluator left = compile(slots);
+            Evaluator right = other.compile(slots);
+            return values -> Money.subtract(left.evaluate(values), right.evaluate(values));
+        };
+    }
+
+    /**
+     * This formula times another, rounded to two decimal places (exact when either is a whole number).
+     */
+    default Formula times(Formula other, RoundingMode rounding) {
+        return slots -> {
+            Evaluator left = compile(slots);
+            Evaluator right = other.compile(slots);
+            return values -> Money.multiply(left.evaluate(values), right.evaluate(values), rounding);
+        };
+    }
+
+    /**
+     * This formula divided by another, rounded to two decimal places.
+     * Division by zero yields zero.
+     */
+    default Formula dividedBy(Formula divisor, RoundingMode rounding) {
+        return slots -> {
+            Evaluator left = compile(slots);
+            Evaluator right = divisor.compile(slots);
+            return values -> {
+                long denominator = right.evaluate(values);
+                return denominator == 0 ? 0 : Money.divide(left.evaluate(values), denominator, rounding);
+            };
+        };
+    }
+
+    /**
+     * This formula, or zero if it is negative.
+     */
+    default Formula atLeastZero() {
+        return slots -> {
+            Evaluator inner = compile(slots);
+            return values -> Math.max(0, inner.evaluate(values));
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package com.payflow.payflow.salary;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point arithmetic on amounts held as a primitive {@code long} of minor units (paise),
+ * i.e. with exactly two decimal places. Bulk salary computation works on these longs so an
+ * employee's calculation allocates nothing; amounts are converted from {@link BigDecimal} when
+ * read from the CTC record and back only when the payslip is persisted.
+ *
+ * Counts such as days are held the same way (31 days is {@code 3100}), so every value of a
+ * {@link SalaryPlan} has the same scale. Every operation that can lose precision takes an explicit
+ * {@link RoundingMode}, and overflow throws {@link ArithmeticException} instead of wrapping.
+ */
+public final class Money {
+
+    /**
+     * Minor units per major unit (paise per rupee).
+     */
+    public static final long ONE = 100;
+
+    /**
+     * Number of decimal places of a fixed-point value.
+     */
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Returns the fixed-point value of a whole number (e.g. a number of days).
+     */
+    public static long of(long units) {
+        return Math.multiplyExact(units, ONE);
+    }
+
+    /**
+     * Converts a decimal amount to minor units.
+     *
+     * @param amount The amount; null counts as zero.
+     * @param rounding How to round amounts with more than two decimal places.
+     * @throws ArithmeticException if the amount does not fit in a long of minor units.
+     */
+    public static long of(BigDecimal amount, RoundingMode rounding) {
+        return amount == null ? 0 : amount.setScale(SCALE, rounding).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts minor units to a decimal amount with two decimal places, for persistence.
+     */
+    public static BigDecimal toBigDecimal(long amount) {
+        return BigDecimal.valueOf(amount, SCALE);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Multiplies two fixed-point values, rounding the product to two decimal places.
+     * Exact when either operand is a whole number.
+     */
+    public static long multiply(long a, long b, RoundingMode rounding) {
+        return divideRounded(Math.multiplyExact(a, b), ONE, rounding);
+    }
+
+    /**
+     * Divides a fixed-point value by another, rounding the quotient to two decimal places.
+     *
+     * @throws ArithmeticException if the divisor is zero.
+     */
+    public static long divide(long dividend, long divisor, RoundingMode rounding) {
+        return divideRounded(Math.multiplyExact(dividend, ONE), divisor, rounding);
+    }
+
+    /**
+     * Divides a fixed-point value by a whole number (e.g. an annual amount by 12), rounding the
+     * quotient to two decimal places.
+     *
+     * @throws ArithmeticException if the divisor is zero.
+     */
+    public static long divideByWhole(long dividend, long divisor, RoundingMode rounding) {
+        return divideRounded(dividend, divisor, rounding);
+    }
+
+    /**
+     * Integer division of two longs with the given rounding, matching {@link BigDecimal#divide}.
+     *
+     * @throws ArithmeticException if the divisor is zero, the quotient does not fit in a long, or
+     *         the rounding is {@link RoundingMode#UNNECESSARY} and the division is inexact.
+     */
+    static long divideRounded(long dividend, long divisor, RoundingMode rounding) {
+        long quotient = Math.divideExact(dividend, divisor);
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        // The exact quotient lies strictly between quotient and quotient + signum
+        int signum = (dividend < 0) == (divisor < 0) ? 1 : -1;
+        boolean increment;
+        switch (rounding) {
+            case UP -> increment = true;
+            case DOWN -> increment = false;
+            case CEILING -> increment = signum > 0;
+            case FLOOR -> increment = signum < 0;
+            case HALF_UP, HALF_DOWN, HALF_EVEN -> {
+                // Compare the remainder with half the divisor without overflowing; unsigned, as
+                // Math.abs(Long.MIN_VALUE) is 2^63 when read as an unsigned value
+                long absRemainder = Math.abs(remainder);
+                long other = Math.abs(divisor) - absRemainder;
+                int half = Long.compareUnsigned(absRemainder, other);
+                if (half != 0) {
+                    increment = half > 0;
+                } else if (rounding == RoundingMode.HALF_UP) {
+                    increment = true;
+                } else if (rounding == RoundingMode.HALF_DOWN) {
+                    increment = false;
+                } else {
+                    increment = (quotient & 1) != 0;
+                }
+            }
+            default -> throw new ArithmeticException("Rounding necessary for " + dividend + " / " + divisor);
+        }
+        return increment ? quotient + signum : quotient;
+    }
+}
@@ -0,0 +1,237 @@
+package com.payflow.payflow.salary;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled set of salary rules: earnings, statutory deductions, loss-of-pay and any intermediate
+ * values, each defined by a {@link Formula} over the plan's inputs and earlier lines.
+ * The rule set is described once through {@link Builder} and compiled into an evaluation plan in
+ * which every name is resolved to a slot index and the steps are in dependency order, so
+ * evaluating the plan for an employee is a straight pass over a {@code long[]} with no lookups.
+ * All values are fixed-point {@link Money} amounts, so an evaluation allocates nothing but its result;
+ * callers convert to {@code BigDecimal} with {@link Money#toBigDecimal} only when persisting.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class SalaryPlan {
+
+    /**
+     * The kind of a line in the plan.
+     */
+    public enum LineType {
+        /** Added to the employee's earnings. */
+        EARNING,
+        /** Subtracted from the employee's earnings. */
+        DEDUCTION,
+        /** An intermediate value used by other lines. */
+        VALUE
+    }
+
+    private final Map<String, Integer> slots;
+    private final int[] stepSlots;
+    private final Formula.Evaluator[] steps;
+    private final int[] earningSlots;
+    private final int[] deductionSlots;
+
+    private SalaryPlan(Map<String, Integer> slots, int[] stepSlots, Formula.Evaluator[] steps,
+                       int[] earningSlots, int[] deductionSlots) {
+        this.slots = slots;
+        this.stepSlots = stepSlots;
+        this.steps = steps;
+        this.earningSlots = earningSlots;
+        this.deductionSlots = deductionSlots;
+    }
+
+    /**
+     * Starts a new rule set.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the slot index of an input or line, to be used with the arrays passed to and returned by {@link #evaluate}.
+     *
+     * @throws IllegalArgumentException if the plan defines no value with that name.
+     */
+    public int slotIndex(String name) {
+        Integer index = slots.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown salary plan value: " + name);
+        }
+        return index;
+    }
+
+    /**
+     * Returns a new, empty input array for {@link #evaluate}.
+     */
+    public long[] newInputs() {
+        return new long[slots.size()];
+    }
+
+    /**
+     * Evaluates the plan for one employee.
+     *
+     * @param values The input values in {@link Money} minor units, set at their {@link #slotIndex};
+     *               unset inputs are zero.
+     *               The computed lines are written into the same array.
+     * @return The totals of the evaluation.
+     */
+    public Result evaluate(long[] values) {
+        if (values.length != slots.size()) {
+            throw new IllegalArgumentException("Expected " + slots.size() + " slots, got " + values.length);
+        }
+        for (int i = 0; i < steps.length; i++) {
+            values[stepSlots[i]] = steps[i].evaluate(values);
+        }
+        long earnings = 0;
+        for (int slot : earningSlots) {
+            earnings = Money.add(earnings, values[slot]);
+        }
+        long deductions = 0;
+        for (int slot : deductionSlots) {
+            deductions = Money.add(deductions, values[slot]);
+        }
+        return new Result(values, earnings, deductions);
+    }
+
+    /**
+     * The totals and line values of one evaluation, in {@link Money} minor units.
+     * Line values are read from the array the plan was evaluated in, which must not be reused while the result is in use.
+     */
+    public static final class Result {
+
+        private final long[] values;
+        private final long totalEarnings;
+        private final long totalDeductions;
+
+        private Result(long[] values, long totalEarnings, long totalDeductions) {
+            this.values = values;
+            this.totalEarnings = totalEarnings;
+            this.totalDeductions = totalDeductions;
+        }
+
+        /**
+         * Returns the value of an input or line, by its {@link SalaryPlan#slotIndex}.
+         */
+        public long get(int slot) {
+            return values[slot];
+        }
+
+        public long getTotalEarnings() {
+            return totalEarnings;
+        }
+
+        public long getTotalDeductions() {
+            return totalDeductions;
+        }
+
+        /**
+         * Returns the total earnings minus the total deductions.
+         */
+        public long getNetPay() {
+            return Money.subtract(totalEarnings, totalDeductions);
+        }
+    }
+
+    /**
+     * Describes a rule set. Lines are evaluated in the order they are added and may only refer to
+     * inputs and to lines added before them.
+     */
+    public static final class Builder {
+
+        private final List<String> inputs = new ArrayList<>();
+        private final List<String> lineNames = new ArrayList<>();
+        private final List<LineType> lineTypes = new ArrayList<>();
+        private final List<Formula> formulas = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Declares an input, set by the caller for each employee.
+         */
+        public Builder input(String name) {
+            requireNew(name);
+            inputs.add(name);
+            return this;
+        }
+
+        /**
+         * Adds an earnings line.
+         */
+        public Builder earning(String name, Formula formula) {
+            return line(name, LineType.EARNING, formula);
+        }
+
+        /**
+         * Adds a deduction line.
+         */
+        public Builder deduction(String name, Formula formula) {
+            return line(name, LineType.DEDUCTION, formula);
+        }
+
+        /**
+         * Adds an intermediate value that is neither earned nor deducted.
+         */
+        public Builder value(String name, Formula formula) {
+            return line(name, LineType.VALUE, formula);
+        }
+
+        private Builder line(String name, LineType type, Formula formula) {
+            requireNew(name);
+            lineNames.add(name);
+            lineTypes.add(type);
+            formulas.add(formula);
+            return this;
+        }
+
+        private void requireNew(String name) {
+            if (inputs.contains(name) || lineNames.contains(name)) {
+                throw new IllegalArgumentException("Salary plan value defined twice: " + name);
+            }
+        }
+
+        /**
+         * Compiles the rule set into an evaluation plan.
+         *
+         * @throws IllegalArgumentException if a formula refers to an unknown value or to a line defined after it.
+         */
+        public SalaryPlan compile() {
+            Map<String, Integer> slots = new LinkedHashMap<>();
+            for (String input : inputs) {
+                slots.put(input, slots.size());
+            }
+            int lineCount = lineNames.size();
+            int[] stepSlots = new int[lineCount];
+            Formula.Evaluator[] steps = new Formula.Evaluator[lineCount];
+            List<Integer> earnings = new ArrayList<>();
+            List<Integer> deductions = new ArrayList<>();
+            for (int i = 0; i < lineCount; i++) {
+                String name = lineNames.get(i);
+                // Only names defined so far resolve, which keeps the steps in dependency order
+                steps[i] = formulas.get(i).compile(reference -> {
+                    Integer slot = slots.get(reference);
+                    if (slot == null) {
+                        throw new IllegalArgumentException("Salary line " + name + " refers to " + reference
+                                + ", which is not an input or a line defined before it");
+                    }
+                    return slot;
+                });
+                int slot = slots.size();
+                slots.put(name, slot);
+                stepSlots[i] = slot;
+                if (lineTypes.get(i) == LineType.EARNING) {
+                    earnings.add(slot);
+                } else if (lineTypes.get(i) == LineType.DEDUCTION) {
+                    deductions.add(slot);
+                }
+            }
+            return new SalaryPlan(Map.copyOf(slots), stepSlots, steps,
+                    earnings.stream().mapToInt(Integer::intValue).toArray(),
+                    deductions.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+}
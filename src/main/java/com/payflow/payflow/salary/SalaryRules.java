@@ -0,0 +1,80 @@
+package com.payflow.payflow.salary;
+
+import java.math.RoundingMode;
+
+import static com.payflow.payflow.salary.Formula.constant;
+import static com.payflow.payflow.salary.Formula.ref;
+import static com.payflow.payflow.salary.Formula.sum;
+
+/**
+ * The standard PayFlow salary rule sets and the names of their inputs.
+ * Each rule set is compiled into a {@link SalaryPlan} once, at startup (see
+ * {@code config.SalaryRuleConfig}); deployments with different rules replace those beans.
+ */
+public final class SalaryRules {
+
+    // CTC component inputs, as stored on the CTC record
+    public static final String BASIC = "basic";
+    public static final String HRA = "hra";
+    public static final String ALLOWANCES = "allowances";
+    public static final String BONUSES = "bonuses";
+    public static final String PF = "pf";
+    public static final String GRATUITY = "gratuity";
+    public static final String TOTAL_CTC = "totalCtc";
+
+    // Attendance inputs; leave is counted in working days, so the daily rate is per working day too
+    public static final String WORKING_DAYS_IN_MONTH = "workingDaysInMonth";
+    public static final String LEAVES_USED_THIS_YEAR = "leavesUsedThisYear";
+    public static final String APPROVED_LEAVE_DAYS = "approvedLeaveDays";
+    public static final String LEAVE_BALANCE = "leaveBalance";
+
+    // Deduction lines, printed one per line on the payslip
+    public static final String PF_DEDUCTION = "pfDeduction";
+    public static final String GRATUITY_DEDUCTION = "gratuityDeduction";
+    public static final String LEAVE_DEDUCTION = "leaveDeduction";
+
+    /**
+     * Leave days per year that are not deducted under the component-based rules.
+     */
+    public static final int ANNUAL_LEAVE_LIMIT = 12;
+
+    private SalaryRules() {
+    }
+
+    /**
+     * Component-based rules, used by single and bulk payslip generation.
+     * Gross pay is basic + HRA + allowances + bonuses + PF. PF and gratuity are deducted, and every
+     * leave day taken this year beyond {@link #ANNUAL_LEAVE_LIMIT} is deducted as loss of pay at the
+     * gross daily rate: gross pay over the working days of the month.
+     * Inputs: {@link #BASIC}, {@link #HRA}, {@link #ALLOWANCES}, {@link #BONUSES}, {@link #PF},
+     * {@link #GRATUITY}, {@link #WORKING_DAYS_IN_MONTH}, {@link #LEAVES_USED_THIS_YEAR}.
+     */
+    public static SalaryPlan componentBased() {
+        return SalaryPlan.builder()
+                .input(BASIC).input(HRA).input(ALLOWANCES).input(BONUSES).input(PF).input(GRATUITY)
+                .input(WORKING_DAYS_IN_MONTH).input(LEAVES_USED_THIS_YEAR)
+                .earning("grossPay", sum(ref(BASIC), ref(HRA), ref(ALLOWANCES), ref(BONUSES), ref(PF)))
+                .deduction(PF_DEDUCTION, ref(PF))
+                .deduction(GRATUITY_DEDUCTION, ref(GRATUITY))
+                .value("lossOfPayDays", ref(LEAVES_USED_THIS_YEAR).minus(constant(ANNUAL_LEAVE_LIMIT)).atLeastZero())
+                .value("dailyRate", ref("grossPay").dividedBy(ref(WORKING_DAYS_IN_MONTH), RoundingMode.HALF_UP))
+                .deduction(LEAVE_DEDUCTION, ref("dailyRate").times(ref("lossOfPayDays"), RoundingMode.HALF_UP))
+                .compile();
+    }
+
+    /**
+     * Annual-CTC rules, used by the payroll run.
+     * Monthly pay is the total CTC divided by 12; approved leave days in the month beyond the
+     * employee's leave balance are deducted as loss of pay at the daily rate: monthly pay over the working days of the month.
+     * Inputs: {@link #TOTAL_CTC}, {@link #WORKING_DAYS_IN_MONTH}, {@link #APPROVED_LEAVE_DAYS}, {@link #LEAVE_BALANCE}.
+     */
+    public static SalaryPlan annualCtcBased() {
+        return SalaryPlan.builder()
+                .input(TOTAL_CTC).input(WORKING_DAYS_IN_MONTH).input(APPROVED_LEAVE_DAYS).input(LEAVE_BALANCE)
+                .earning("monthlyPay", ref(TOTAL_CTC).dividedBy(constant(12), RoundingMode.HALF_UP))
+                .value("lossOfPayDays", ref(APPROVED_LEAVE_DAYS).minus(ref(LEAVE_BALANCE)).atLeastZero())
+                .value("dailyRate", ref("monthlyPay").dividedBy(ref(WORKING_DAYS_IN_MONTH), RoundingMode.HALF_UP))
+                .deduction(LEAVE_DEDUCTION, ref("dailyRate").times(ref("lossOfPayDays"), RoundingMode.HALF_UP))
+                .compile();
+    }
+}
@@ -0,0 +1,24 @@
+-- Payslips that cannot be kept in payslip by a migration are moved here, with the reason, for manual review
+CREATE TABLE payslip_quarantine AS SELECT * FROM payslip WHERE 1 = 0;
+ALTER TABLE payslip_quarantine ADD COLUMN quarantine_reason VARCHAR(64);
+
+-- Move duplicate payslips for the same employee and period aside, keeping the first one generated,
+-- so the unique constraint below can be added
+INSERT INTO payslip_quarantine
+SELECT p.*, 'Duplicate of an earlier payslip for the period' FROM payslip p
+WHERE EXISTS (SELECT 1 FROM (SELECT payslip_id, employee_id, year, month FROM payslip) q
+              WHERE q.employee_id = p.employee_id AND q.year = p.year AND q.month = p.month
+                  AND q.payslip_id < p.payslip_id);
+
+DELETE p FROM payslip p
+JOIN payslip q ON q.employee_id = p.employee_id AND q.year = p.year AND q.month = p.month
+    AND q.payslip_id < p.payslip_id;
+
+-- One payslip per employee and period; also serves findByEmployeeIdAndMonthAndYear on every generation and download
+ALTER TABLE payslip ADD CONSTRAINT uk_payslip_employee_period UNIQUE (employee_id, year, month);
+
+-- Add index for finding the CTC record in force for an employee and period
+CREATE INDEX idx_ctc_details_employee_period ON ctc_details(employee_id, effective_from, effective_to);
+
+-- Add index for an employee's leave requests by status and start date (overlap and balance checks)
+CREATE INDEX idx_leave_request_employee_status ON leave_request(employee_id, status, start_date);
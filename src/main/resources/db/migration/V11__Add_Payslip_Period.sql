@@ -0,0 +1,43 @@
+-- Add the numeric yyyymm pay period key to payslip, filled from the month name and year of existing rows.
+-- Rows that cannot get a valid, unique period are moved to payslip_quarantine (created by V10) first,
+-- while payslip still has the quarantine table's columns.
+
+-- NULL year or month, or a month name that is not recognized even ignoring case and surrounding spaces
+INSERT INTO payslip_quarantine
+SELECT p.*, 'Unrecognized month or year' FROM payslip p
+WHERE p.year IS NULL OR p.month IS NULL OR FIELD(UPPER(TRIM(p.month)),
+    'JANUARY', 'FEBRUARY', 'MARCH', 'APRIL', 'MAY', 'JUNE',
+    'JULY', 'AUGUST', 'SEPTEMBER', 'OCTOBER', 'NOVEMBER', 'DECEMBER') = 0;
+
+DELETE FROM payslip
+WHERE year IS NULL OR month IS NULL OR FIELD(UPPER(TRIM(month)),
+    'JANUARY', 'FEBRUARY', 'MARCH', 'APRIL', 'MAY', 'JUNE',
+    'JULY', 'AUGUST', 'SEPTEMBER', 'OCTOBER', 'NOVEMBER', 'DECEMBER') = 0;
+
+-- Spellings that differ only in case or spaces (e.g. ' january') normalize to the same period; keep the
+-- first payslip generated and quarantine the others, so the unique key below can be added
+INSERT INTO payslip_quarantine
+SELECT p.*, 'Duplicate of an earlier payslip for the period' FROM payslip p
+WHERE EXISTS (SELECT 1 FROM (SELECT payslip_id, employee_id, year, UPPER(TRIM(month)) AS month FROM payslip) q
+              WHERE q.employee_id = p.employee_id AND q.year = p.year AND q.month = UPPER(TRIM(p.month))
+                  AND q.payslip_id < p.payslip_id);
+
+DELETE p FROM payslip p
+JOIN payslip q ON q.employee_id = p.employee_id AND q.year = p.year
+    AND UPPER(TRIM(q.month)) = UPPER(TRIM(p.month)) AND q.payslip_id < p.payslip_id;
+
+ALTER TABLE payslip ADD COLUMN period INT;
+UPDATE payslip SET period = year * 100 + FIELD(UPPER(TRIM(month)),
+    'JANUARY', 'FEBRUARY', 'MARCH', 'APRIL', 'MAY', 'JUNE',
+    'JULY', 'AUGUST', 'SEPTEMBER', 'OCTOBER', 'NOVEMBER', 'DECEMBER');
+UPDATE payslip SET month = ELT(period % 100,
+    'January', 'February', 'March', 'April', 'May', 'June',
+    'July', 'August', 'September', 'October', 'November', 'December');
+ALTER TABLE payslip MODIFY period INT NOT NULL;
+
+-- One payslip per employee and period; also serves an employee's payslips in period order and "last N months" range scans
+ALTER TABLE payslip DROP INDEX uk_payslip_employee_period;
+ALTER TABLE payslip ADD CONSTRAINT uk_payslip_employee_period UNIQUE (employee_id, period);
+
+-- Add index for month-wide queries (bulk runs, archive export, regeneration)
+CREATE INDEX idx_payslip_period ON payslip(period, employee_id);
@@ -0,0 +1,11 @@
+-- Snapshot the earnings and deductions printed on each payslip, so payslips never read ctc_details again.
+-- Payslips generated earlier keep NULLs and are rendered from the CTC in force for their period.
+ALTER TABLE payslip
+    ADD COLUMN ctc_id BIGINT,
+    ADD COLUMN basic_pay DECIMAL(38,2),
+    ADD COLUMN hra_pay DECIMAL(38,2),
+    ADD COLUMN da_pay DECIMAL(38,2),
+    ADD COLUMN special_allowance_pay DECIMAL(38,2),
+    ADD COLUMN other_allowances_pay DECIMAL(38,2),
+    ADD COLUMN gross_pay DECIMAL(38,2),
+    ADD COLUMN pf_deduction DECIMAL(38,2);
@@ -0,0 +1,18 @@
+-- Approved leave days per employee and month (yyyymm period of the leave's start date), maintained
+-- incrementally when a leave request is approved or un-approved, so payroll never rescans leave_request
+CREATE TABLE leave_usage (
+    employee_id BIGINT NOT NULL,
+    period INT NOT NULL,
+    approved_days INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (employee_id, period)
+);
+
+-- Add index for loading the usage of all employees for a period in one query
+CREATE INDEX idx_leave_usage_period ON leave_usage(period, employee_id);
+
+-- Backfill from the leave requests approved so far
+INSERT INTO leave_usage (employee_id, period, approved_days)
+SELECT employee_id, YEAR(start_date) * 100 + MONTH(start_date), SUM(days)
+FROM leave_request
+WHERE UPPER(status) = 'APPROVED' AND employee_id IS NOT NULL AND start_date IS NOT NULL AND days IS NOT NULL
+GROUP BY employee_id, YEAR(start_date) * 100 + MONTH(start_date);
@@ -0,0 +1,3 @@
+-- Leave usage is now counted in working days split across the months a leave spans, which needs the
+-- holiday calendar; clear the calendar-day backfill of V13 so the application rebuilds it at startup
+DELETE FROM leave_usage;
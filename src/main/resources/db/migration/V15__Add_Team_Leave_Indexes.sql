@@ -0,0 +1,2 @@
+-- Add index for a manager's direct reports, the driving side of the team-leave join
+CREATE INDEX idx_employee_manager ON employee(manager_id, id);
@@ -0,0 +1,23 @@
+-- Create org_closure table: one row per (ancestor, descendant) pair of the reporting hierarchy,
+-- including each employee as its own ancestor at depth 0, so a whole subtree is one index range
+CREATE TABLE org_closure (
+    ancestor_id BIGINT NOT NULL,
+    descendant_id BIGINT NOT NULL,
+    depth INT NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id)
+);
+
+-- Add index for finding an employee's managers at every level (used when moving a subtree)
+CREATE INDEX idx_org_closure_descendant ON org_closure(descendant_id, ancestor_id, depth);
+
+-- Backfill from the manager links; the depth bound and MIN guard against cycles in existing data
+INSERT INTO org_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE chain (ancestor_id, descendant_id, depth) AS (
+    SELECT id, id, 0 FROM employee
+    UNION ALL
+    SELECT e.manager_id, chain.descendant_id, chain.depth + 1
+    FROM chain
+    JOIN employee e ON e.id = chain.ancestor_id
+    WHERE e.manager_id IS NOT NULL AND chain.depth < 64
+)
+SELECT ancestor_id, descendant_id, MIN(depth) FROM chain GROUP BY ancestor_id, descendant_id;
@@ -0,0 +1,15 @@
+-- Add the claim of a run: the invocation processing it and how long its claim lasts
+ALTER TABLE payroll_run ADD COLUMN owner VARCHAR(36) NULL, ADD COLUMN lease_until TIMESTAMP NULL;
+
+-- Older duplicate RUNNING runs left by concurrent starts are marked FAILED, so the newest one is kept
+UPDATE payroll_run r
+JOIN payroll_run newer ON newer.job_type = r.job_type AND newer.year = r.year AND newer.month = r.month
+    AND newer.status = 'RUNNING' AND newer.run_id > r.run_id
+SET r.status = 'FAILED'
+WHERE r.status = 'RUNNING';
+
+-- At most one RUNNING run per job, month and year, so two concurrent starts cannot both create a run
+ALTER TABLE payroll_run
+    ADD COLUMN running_key VARCHAR(64) GENERATED ALWAYS AS
+        (IF(status = 'RUNNING', CONCAT(job_type, ':', year, ':', month), NULL)) STORED,
+    ADD CONSTRAINT uk_payroll_run_running UNIQUE (running_key);
@@ -0,0 +1,7 @@
+-- Create leave_usage_lock table: a single row that serializes rebuilds of leave_usage against
+-- incremental updates. Approvals lock it in share mode, a rebuild locks it exclusively
+CREATE TABLE leave_usage_lock (
+    id TINYINT PRIMARY KEY
+);
+
+INSERT INTO leave_usage_lock (id) VALUES (1);
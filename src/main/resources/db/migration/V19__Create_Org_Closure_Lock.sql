@@ -0,0 +1,7 @@
+-- Create org_closure_lock table: a single row that serializes changes to org_closure, so the cycle
+-- check of a move and the rows it rewrites cannot interleave with another move or a new employee
+CREATE TABLE org_closure_lock (
+    id TINYINT PRIMARY KEY
+);
+
+INSERT INTO org_closure_lock (id) VALUES (1);
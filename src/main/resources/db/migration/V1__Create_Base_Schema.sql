@@ -0,0 +1,86 @@
+-- Create the core tables, previously created by Hibernate's ddl-auto=update.
+-- Databases created that way are baselined at V7 (spring.flyway.baseline-version) and skip this script.
+
+-- Create employee table
+CREATE TABLE employee (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255),
+    email VARCHAR(255),
+    phone VARCHAR(255),
+    address VARCHAR(255),
+    position VARCHAR(255),
+    start_date DATE,
+    leaves INT,
+    status VARCHAR(255),
+    password VARCHAR(255),
+    first_login BIT,
+    education LONGTEXT,
+    experiences LONGTEXT,
+    role VARCHAR(255),
+    age INT NOT NULL,
+    leave_balance INT,
+    past_experience VARCHAR(255),
+    total_experience INT NOT NULL,
+    pf_number VARCHAR(255),
+    username VARCHAR(255),
+    manager_id BIGINT,
+    salary_deduction_days INT,
+    monthly_salary DOUBLE,
+    leaves_used_this_month INT,
+    total_leaves_used_this_year INT
+);
+
+-- Create user table for administrative accounts
+CREATE TABLE user (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(255),
+    password VARCHAR(255),
+    role VARCHAR(255),
+    status VARCHAR(255),
+    first_login BIT NOT NULL
+);
+
+-- Create ctc_details table: salary structure records with their effective period
+CREATE TABLE ctc_details (
+    ctc_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    employee_id BIGINT NOT NULL,
+    effective_from DATE NOT NULL,
+    effective_to DATE,
+    basic_salary DECIMAL(38,2),
+    hra DECIMAL(38,2),
+    allowances DECIMAL(38,2),
+    bonuses DECIMAL(38,2),
+    pf_contribution DECIMAL(38,2),
+    gratuity DECIMAL(38,2),
+    total_ctc DECIMAL(38,2),
+    created_at DATETIME(6),
+    da DECIMAL(38,2),
+    special_allowance DECIMAL(38,2)
+);
+
+-- Create payslip table
+CREATE TABLE payslip (
+    payslip_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    employee_id BIGINT NOT NULL,
+    month VARCHAR(255),
+    year INT NOT NULL,
+    net_pay DECIMAL(38,2) NOT NULL,
+    deductions DECIMAL(38,2),
+    generated_on DATETIME(6),
+    download_link VARCHAR(255)
+);
+
+-- Create leave_request table
+CREATE TABLE leave_request (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    employee_id BIGINT,
+    employee_email VARCHAR(255),
+    start_date DATE,
+    end_date DATE,
+    reason VARCHAR(255),
+    status VARCHAR(255),
+    days INT,
+    salary_deducted BIT,
+    first_login BIT,
+    default_password VARCHAR(255)
+);
@@ -0,0 +1,5 @@
+-- Store each deduction line of the payslip breakdown, as computed by the salary plan, next to pf_deduction.
+-- Payslips generated earlier keep NULLs; only their total deductions are known.
+ALTER TABLE payslip
+    ADD COLUMN gratuity_deduction DECIMAL(38,2),
+    ADD COLUMN leave_deduction DECIMAL(38,2);
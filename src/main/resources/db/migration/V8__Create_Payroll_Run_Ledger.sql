@@ -0,0 +1,34 @@
+-- Create payroll_run table: one row per month-end payroll or payslip run
+CREATE TABLE payroll_run (
+    run_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    job_type VARCHAR(32) NOT NULL,
+    month VARCHAR(16) NOT NULL,
+    year INT NOT NULL,
+    regenerate BIT,
+    status VARCHAR(16) NOT NULL,
+    total_chunks INT,
+    completed_chunks INT,
+    generated_count INT,
+    failed_count INT,
+    started_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+-- Add index for finding the unfinished run of a job for a month
+CREATE INDEX idx_payroll_run_job_period ON payroll_run(job_type, year, month, status);
+
+-- Create payroll_run_chunk table: the ID-range chunks of a run and their checkpoint status
+CREATE TABLE payroll_run_chunk (
+    chunk_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    run_id BIGINT NOT NULL,
+    chunk_index INT NOT NULL,
+    from_employee_id BIGINT NOT NULL,
+    to_employee_id BIGINT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    generated_count INT,
+    failed_count INT,
+    error_message TEXT,
+    committed_at TIMESTAMP,
+    CONSTRAINT fk_payroll_run_chunk_run FOREIGN KEY (run_id) REFERENCES payroll_run(run_id) ON DELETE CASCADE,
+    CONSTRAINT uk_payroll_run_chunk UNIQUE (run_id, chunk_index)
+);
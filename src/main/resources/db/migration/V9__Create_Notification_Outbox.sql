@@ -0,0 +1,20 @@
+-- Create notification_outbox table: notifications written in the same transaction as the change they announce
+CREATE TABLE notification_outbox (
+    outbox_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    channel VARCHAR(16) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    aggregate_type VARCHAR(32),
+    aggregate_id BIGINT,
+    status VARCHAR(16) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    locked_until TIMESTAMP NULL,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL,
+    sent_at TIMESTAMP NULL
+);
+
+-- Add index for the dispatcher, which claims due rows by status and time
+CREATE INDEX idx_notification_outbox_due ON notification_outbox(status, next_attempt_at);
@@ -0,0 +1,69 @@
+package com.payflow.payflow.Service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for the BCrypt cost factor ({@code payflow.auth.bcrypt-strength}): the time of one
+ * login check and of hashing a new password at the configured cost and the two costs above it.
+ * One check occupies a {@link PasswordHasher} thread for this long, so the login throughput of a
+ * node is about {@code payflow.auth.hash-threads} divided by the {@code verify} time, and a full
+ * queue of {@code payflow.auth.hash-queue-capacity} logins drains in capacity / throughput.
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.payflow.payflow.Service.PasswordHashBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(1)
+@Fork(1)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "Payflow@2024";
+
+    @Param({"10", "11", "12"})
+    private int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String storedHash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        storedHash = encoder.encode(PASSWORD);
+        if (!encoder.matches(PASSWORD, storedHash)) {
+            throw new IllegalStateException("Hash does not verify at strength " + strength);
+        }
+    }
+
+    /**
+     * Checking a password at login.
+     */
+    @Benchmark
+    public boolean verify() {
+        return encoder.matches(PASSWORD, storedHash);
+    }
+
+    /**
+     * Hashing a new or reset password, or upgrading a legacy one at login.
+     */
+    @Benchmark
+    public String hash() {
+        return encoder.encode(PASSWORD);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PasswordHashBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,133 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.model.Employee;
+import com.payflow.payflow.model.PaymentHold;
+import com.payflow.payflow.repository.PaymentHoldRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * JMH benchmark for marking the payment hold status of the employee list.
+ * Compares the old loop with one {@code findByEmployeeId} query per employee against
+ * {@code markPaymentHolds}, which answers from the in-memory hold index.
+ * The repository is a stub that counts queries and simulates a database round trip of
+ * {@code roundTripMicros} per query; the benchmark fails if {@code markPaymentHolds} issues
+ * more than one query (the lazy index load) in a call, at any list size.
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.payflow.payflow.Service.PaymentHoldLookupBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(1)
+@Fork(1)
+public class PaymentHoldLookupBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int employees;
+
+    @Param({"50"})
+    private long roundTripMicros;
+
+    private List<Employee> employeeList;
+    private PaymentHoldRepository repository;
+    private PaymentHoldService paymentHoldService;
+    private long queries;
+    private long calls;
+
+    @Setup
+    public void setUp() {
+        employeeList = new ArrayList<>(employees);
+        List<Long> heldIds = new ArrayList<>();
+        for (long id = 1; id <= employees; id++) {
+            Employee employee = new Employee("Employee " + id, "employee" + id + "@payflow.com");
+            employee.setId(id);
+            employeeList.add(employee);
+            if (id % 20 == 0) {
+                heldIds.add(id);
+            }
+        }
+
+        repository = (PaymentHoldRepository) Proxy.newProxyInstance(
+                PaymentHoldRepository.class.getClassLoader(),
+                new Class<?>[]{PaymentHoldRepository.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findAllEmployeeIds":
+                            query();
+                            return heldIds;
+                        case "findByEmployeeId":
+                            query();
+                            Long employeeId = (Long) args[0];
+                            return employeeId % 20 == 0 ? Optional.of(new PaymentHold()) : Optional.empty();
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        paymentHoldService = new PaymentHoldService(repository, null);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        queries = 0;
+        calls = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportQueries() {
+        System.out.println("\n  " + employees + " employees: " + queries + " queries over " + calls + " calls ("
+                + (calls == 0 ? 0 : (double) queries / calls) + " per call)");
+    }
+
+    /**
+     * The previous implementation: one payment hold query per employee.
+     */
+    @Benchmark
+    public List<Employee> perEmployeeLookup() {
+        calls++;
+        for (Employee employee : employeeList) {
+            employee.setHasPaymentHold(repository.findByEmployeeId(employee.getId()).isPresent());
+        }
+        return employeeList;
+    }
+
+    /**
+     * Lookups in the in-memory hold index, loaded with a single query on first use.
+     */
+    @Benchmark
+    public List<Employee> holdSetLookup() {
+        calls++;
+        long before = queries;
+        List<Employee> marked = paymentHoldService.markPaymentHolds(employeeList);
+        if (queries - before > 1) {
+            throw new IllegalStateException("Expected at most 1 query for " + employees + " employees, got " + (queries - before));
+        }
+        return marked;
+    }
+
+    private void query() {
+        queries++;
+        if (roundTripMicros > 0) {
+            LockSupport.parkNanos(roundTripMicros * 1000);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PaymentHoldLookupBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,95 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.mail.LocalSmtpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sends a month-end payslip-ready fan-out through the {@link MailPipeline} to a {@link LocalSmtpServer}:
+ * one notification per employee from the precompiled templates, all submitted at once, then checks
+ * that every message arrived exactly once, that each worker kept to one SMTP connection, and that
+ * the rate limit was respected. Errors on the server side fail the test.
+ */
+class PayslipNotificationFanOutTest {
+
+	private static final int WORKERS = 2;
+
+	@Test
+	void deliversEveryNotificationOverOneConnectionPerWorker() throws Exception {
+		int employees = 2000;
+		try (LocalSmtpServer server = LocalSmtpServer.start()) {
+			fanOut(server, employees, 0);
+
+			assertEquals(employees, server.getMessageCount());
+			Set<String> recipients = new HashSet<>();
+			for (LocalSmtpServer.ReceivedMessage message : server.getMessages()) {
+				assertEquals(1, message.recipients().size());
+				recipients.add(message.recipients().get(0));
+			}
+			assertEquals(employees, recipients.size(), "Every employee is notified exactly once");
+			assertTrue(server.getConnectionCount() >= 1 && server.getConnectionCount() <= WORKERS,
+					"Expected at most " + WORKERS + " SMTP connections, server accepted " + server.getConnectionCount());
+			server.assertNoErrors();
+		}
+	}
+
+	@Test
+	void respectsTheRateLimit() throws Exception {
+		int employees = 100;
+		double maxPerSecond = 200;
+		try (LocalSmtpServer server = LocalSmtpServer.start()) {
+			long elapsedNanos = fanOut(server, employees, maxPerSecond);
+
+			double seconds = elapsedNanos / 1e9;
+			assertEquals(employees, server.getMessageCount());
+			assertTrue(employees / seconds <= maxPerSecond * 1.05,
+					"Sent " + (employees / seconds) + " messages/s with a limit of " + maxPerSecond);
+			assertTrue(server.getConnectionCount() <= WORKERS,
+					"Expected at most " + WORKERS + " SMTP connections, server accepted " + server.getConnectionCount());
+			server.assertNoErrors();
+		}
+	}
+
+	/**
+	 * Submits one payslip-ready notification per employee, waits for all of them to be delivered
+	 * and shuts the pipeline down.
+	 *
+	 * @return The time from the first submit until the last delivery.
+	 */
+	private static long fanOut(LocalSmtpServer server, int employees, double maxPerSecond) throws Exception {
+		JavaMailSenderImpl sender = new JavaMailSenderImpl();
+		sender.setHost("localhost");
+		sender.setPort(server.getPort());
+
+		MailPipeline pipeline = new MailPipeline(sender, new SimpleMeterRegistry(), WORKERS, employees,
+				1, 100, 1000, 30000, maxPerSecond);
+		try {
+			String subject = PayslipNotificationService.renderSubject("January", 2025);
+			List<CompletableFuture<Void>> deliveries = new ArrayList<>(employees);
+			long start = System.nanoTime();
+			for (int id = 1; id <= employees; id++) {
+				SimpleMailMessage message = new SimpleMailMessage();
+				message.setFrom("payroll@payflow.com");
+				message.setTo("employee" + id + "@payflow.com");
+				message.setSubject(subject);
+				message.setText(PayslipNotificationService.renderBody("Employee " + id, "January", 2025));
+				deliveries.add(pipeline.submit(message));
+			}
+			CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0])).get(2, TimeUnit.MINUTES);
+			return System.nanoTime() - start;
+		} finally {
+			pipeline.shutdown();
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.payflow.payflow.Service;
+
+import com.payflow.payflow.model.CTCDetails;
+import com.payflow.payflow.model.Employee;
+import com.payflow.payflow.model.Payslip;
+import com.payflow.payflow.model.PayslipBreakdown;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for the streaming payslip PDF renderer.
+ * Runs on a single thread, so the reported throughput is documents rendered per second per core.
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.payflow.payflow.Service.PayslipPdfRenderBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class PayslipPdfRenderBenchmark {
+
+    private Employee employee;
+    private Payslip payslip;
+    private PayslipBreakdown breakdown;
+    private OutputStream sink;
+
+    @Setup
+    public void setUp() {
+        employee = new Employee("Benchmark Employee", "bench@payflow.com");
+        employee.setId(42L);
+
+        CTCDetails ctc = new CTCDetails();
+        ctc.setBasicSalary(new BigDecimal("600000"));
+        ctc.setHra(new BigDecimal("240000"));
+        ctc.setDa(new BigDecimal("60000"));
+        ctc.setSpecialAllowance(new BigDecimal("120000"));
+        ctc.setAllowances(new BigDecimal("36000"));
+        ctc.setPfContribution(new BigDecimal("72000"));
+        ctc.setTotalCTC(new BigDecimal("1128000"));
+        breakdown = PayslipBreakdown.of(ctc, 600000, 0, 0);
+
+        payslip = new Payslip();
+        payslip.setEmployeeId(42L);
+        payslip.setNetPay(new BigDecimal("88000.00"));
+        payslip.setDeductions(new BigDecimal("6000.00"));
+
+        sink = OutputStream.nullOutputStream();
+    }
+
+    /**
+     * Resolves the slot values and streams one complete payslip document.
+     */
+    @Benchmark
+    public void renderPayslip() throws IOException {
+        String[] values = PayslipPdfService.slotValues(employee, payslip, breakdown, "January", 2025);
+        BufferedOutputStream out = new BufferedOutputStream(sink);
+        PayslipPdfService.TEMPLATE.render(values, out);
+        out.flush();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PayslipPdfRenderBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
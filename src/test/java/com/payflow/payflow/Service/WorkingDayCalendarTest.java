@@ -0,0 +1,133 @@
+package com.payflow.payflow.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkingDayCalendarTest {
+
+	private static final Set<DayOfWeek> WEEKEND = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+
+	private static final List<LocalDate> HOLIDAYS = List.of(
+			LocalDate.of(2024, 1, 1),
+			LocalDate.of(2024, 3, 5),
+			// Days 63 and 64 of the year, either side of the first word boundary
+			LocalDate.of(2024, 3, 4),
+			LocalDate.of(2024, 12, 31),
+			LocalDate.of(2025, 1, 1),
+			LocalDate.of(2025, 8, 15));
+
+	private final WorkingDayCalendar calendar = new WorkingDayCalendar(WEEKEND, HOLIDAYS);
+
+	private static boolean isWorkingDay(LocalDate date) {
+		return !WEEKEND.contains(date.getDayOfWeek()) && !HOLIDAYS.contains(date);
+	}
+
+	private static int countByIteration(LocalDate from, LocalDate to) {
+		int count = 0;
+		for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+			if (isWorkingDay(day)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Test
+	void isWorkingDayMatchesWeekendAndHolidays() {
+		for (LocalDate day = LocalDate.of(2024, 1, 1); day.getYear() < 2026; day = day.plusDays(1)) {
+			assertEquals(isWorkingDay(day), calendar.isWorkingDay(day), day.toString());
+		}
+	}
+
+	@Test
+	void countMatchesIterationForEveryRangeAroundWordBoundaries() {
+		// Day-of-year indexes 0, 63, 64, 127, 128, ... and the last days of a leap and a common year
+		int[] indexes = {0, 1, 62, 63, 64, 65, 126, 127, 128, 129, 190, 191, 192, 254, 255, 256, 318, 319, 320, 363, 364, 365};
+		for (int year : new int[]{2024, 2025}) {
+			LocalDate start = LocalDate.of(year, 1, 1);
+			for (int first : indexes) {
+				for (int last : indexes) {
+					LocalDate from = start.plusDays(first);
+					LocalDate to = start.plusDays(last);
+					if (from.getYear() != year || to.getYear() != year) {
+						continue;
+					}
+					assertEquals(countByIteration(from, to), calendar.countWorkingDays(from, to), from + " to " + to);
+				}
+			}
+		}
+	}
+
+	@Test
+	void countMatchesIterationForEveryRangeStartingInAYear() {
+		LocalDate start = LocalDate.of(2024, 1, 1);
+		for (int first = 0; first < 366; first += 7) {
+			LocalDate from = start.plusDays(first);
+			for (LocalDate to = from.minusDays(1); to.getYear() < 2026; to = to.plusDays(1)) {
+				assertEquals(countByIteration(from, to), calendar.countWorkingDays(from, to), from + " to " + to);
+			}
+		}
+	}
+
+	@Test
+	void countAcrossYearBoundary() {
+		LocalDate from = LocalDate.of(2024, 12, 27);
+		LocalDate to = LocalDate.of(2025, 1, 3);
+		// Fri 27, Mon 30 and Thu 2, Fri 3; 31 Dec and 1 Jan are holidays
+		assertEquals(4, calendar.countWorkingDays(from, to));
+		assertEquals(countByIteration(LocalDate.of(2023, 6, 1), LocalDate.of(2026, 6, 30)),
+				calendar.countWorkingDays(LocalDate.of(2023, 6, 1), LocalDate.of(2026, 6, 30)));
+	}
+
+	@Test
+	void countIsZeroWhenRangeIsReversed() {
+		assertEquals(0, calendar.countWorkingDays(LocalDate.of(2024, 5, 2), LocalDate.of(2024, 5, 1)));
+	}
+
+	@Test
+	void countOfMonth() {
+		assertEquals(countByIteration(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)),
+				calendar.countWorkingDays(YearMonth.of(2024, 2)));
+		// 21 weekdays less the holidays on 4 and 5 March
+		assertEquals(19, calendar.countWorkingDays(YearMonth.of(2024, 3)));
+	}
+
+	@Test
+	void splitByMonthAcrossYearBoundary() {
+		Map<Integer, Integer> expected = new LinkedHashMap<>();
+		expected.put(202411, countByIteration(LocalDate.of(2024, 11, 25), LocalDate.of(2024, 11, 30)));
+		expected.put(202412, countByIteration(LocalDate.of(2024, 12, 1), LocalDate.of(2024, 12, 31)));
+		expected.put(202501, countByIteration(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 10)));
+
+		Map<Integer, Integer> split = calendar.splitByMonth(LocalDate.of(2024, 11, 25), LocalDate.of(2025, 1, 10));
+
+		assertEquals(expected, split);
+		assertEquals(List.of(202411, 202412, 202501), List.copyOf(split.keySet()));
+	}
+
+	@Test
+	void splitByMonthLeavesOutMonthsWithoutWorkingDays() {
+		// Sat 28 Dec to Wed 1 Jan: only Mon 30 Dec works
+		Map<Integer, Integer> split = calendar.splitByMonth(LocalDate.of(2024, 12, 28), LocalDate.of(2025, 1, 1));
+
+		assertEquals(Map.of(202412, 1), split);
+	}
+
+	@Test
+	void calendarWithoutWeekendCountsEveryNonHoliday() {
+		WorkingDayCalendar everyDay = new WorkingDayCalendar(Set.of(), List.of(LocalDate.of(2024, 2, 29)));
+
+		assertEquals(365, everyDay.countWorkingDays(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)));
+		assertEquals(365, everyDay.countWorkingDays(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31)));
+	}
+}
@@ -0,0 +1,186 @@
+package com.payflow.payflow.mail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process SMTP server for exercising the mail pipeline without a real mail provider.
+ * It speaks just enough SMTP for JavaMail (EHLO/HELO, MAIL, RCPT, DATA, RSET, NOOP, QUIT), without
+ * authentication or TLS, accepts every message and keeps it in memory. It also counts the
+ * connections it accepted, so callers can check that messages share persistent connections.
+ * Failures on the server side (an accept or I/O error, a message cut off in the middle, a command it
+ * does not understand) are kept rather than printed; call {@link #assertNoErrors()} to fail a test on them.
+ * Point a {@code JavaMailSenderImpl} at {@code localhost} and {@link #getPort()}.
+ */
+public final class LocalSmtpServer implements AutoCloseable {
+
+    /**
+     * A message accepted by the server.
+     */
+    public record ReceivedMessage(String from, List<String> recipients, String data) {
+    }
+
+    private final ServerSocket serverSocket;
+    private final Queue<ReceivedMessage> messages = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    private LocalSmtpServer(ServerSocket serverSocket) {
+        this.serverSocket = serverSocket;
+    }
+
+    /**
+     * Starts a server on a free port of the loopback interface.
+     */
+    public static LocalSmtpServer start() throws IOException {
+        LocalSmtpServer server = new LocalSmtpServer(new ServerSocket(0, 50, InetAddress.getLoopbackAddress()));
+        Thread.ofPlatform().name("local-smtp-accept").daemon(true).start(server::acceptLoop);
+        return server;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the messages accepted so far.
+     */
+    public List<ReceivedMessage> getMessages() {
+        return new ArrayList<>(messages);
+    }
+
+    public int getMessageCount() {
+        return messages.size();
+    }
+
+    /**
+     * Returns the number of connections accepted since the server started.
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Returns the server-side errors seen so far.
+     */
+    public List<Throwable> getErrors() {
+        return new ArrayList<>(errors);
+    }
+
+    /**
+     * Throws an {@link AssertionError} carrying the server-side errors, if there were any.
+     */
+    public void assertNoErrors() {
+        List<Throwable> seen = getErrors();
+        if (!seen.isEmpty()) {
+            AssertionError failure = new AssertionError(seen.size() + " SMTP server error(s), first: " + seen.get(0), seen.get(0));
+            seen.subList(1, seen.size()).forEach(failure::addSuppressed);
+            throw failure;
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                Thread.ofVirtual().name("local-smtp-session").start(() -> session(socket));
+            } catch (IOException e) {
+                if (running) {
+                    errors.add(e);
+                }
+            }
+        }
+    }
+
+    private void session(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 localhost PayFlow test SMTP");
+            String from = null;
+            List<String> recipients = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO" -> reply(out, "250-localhost\r\n250 8BITMIME");
+                    case "HELO" -> reply(out, "250 localhost");
+                    case "MAIL" -> {
+                        from = address(line);
+                        recipients = new ArrayList<>();
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        recipients.add(address(line));
+                        reply(out, "250 OK");
+                    }
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        StringBuilder data = new StringBuilder();
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // Undo dot-stuffing
+                            data.append(line.startsWith(".") ? line.substring(1) : line).append("\r\n");
+                        }
+                        if (line == null) {
+                            errors.add(new IOException("Connection closed in the middle of a message from " + from));
+                            return;
+                        }
+                        messages.add(new ReceivedMessage(from, List.copyOf(recipients), data.toString()));
+                        from = null;
+                        recipients = new ArrayList<>();
+                        reply(out, "250 OK queued");
+                    }
+                    case "RSET" -> {
+                        from = null;
+                        recipients = new ArrayList<>();
+                        reply(out, "250 OK");
+                    }
+                    case "NOOP" -> reply(out, "250 OK");
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> {
+                        errors.add(new IllegalStateException("Unsupported SMTP command: " + line));
+                        reply(out, "502 Command not implemented");
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // A client that closes its connection between commands ends the loop above without an error
+            if (running) {
+                errors.add(e);
+            }
+        }
+    }
+
+    private static String address(String line) {
+        int open = line.indexOf('<');
+        int close = line.indexOf('>', open + 1);
+        return open >= 0 && close > open ? line.substring(open + 1, close) : line.substring(line.indexOf(':') + 1).trim();
+    }
+
+    private static void reply(OutputStream out, String reply) throws IOException {
+        out.write((reply + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+    }
+}
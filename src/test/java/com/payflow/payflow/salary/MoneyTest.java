@@ -0,0 +1,130 @@
+package com.payflow.payflow.salary;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+	private static final long[] EDGE_VALUES = {
+			0, 1, -1, 2, -2, 3, -3, 5, -5, 7, -7, 12, -12, 99, -99, 100, -100, 101, -101, 150, -150, 250, -250,
+			Long.MAX_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE, Long.MIN_VALUE + 1,
+			Long.MAX_VALUE / 2, Long.MIN_VALUE / 2, Long.MAX_VALUE / 2 + 1, Long.MIN_VALUE / 2 - 1};
+
+	/**
+	 * The quotient {@link BigDecimal#divide} gives, or null if it throws or does not fit in a long.
+	 */
+	private static Long expectedQuotient(long dividend, long divisor, RoundingMode rounding) {
+		try {
+			return BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, rounding).longValueExact();
+		} catch (ArithmeticException e) {
+			return null;
+		}
+	}
+
+	private static void assertDividesLikeBigDecimal(long dividend, long divisor, RoundingMode rounding) {
+		Long expected = expectedQuotient(dividend, divisor, rounding);
+		String division = dividend + " / " + divisor + " " + rounding;
+		if (expected == null) {
+			assertThrows(ArithmeticException.class, () -> Money.divideRounded(dividend, divisor, rounding), division);
+		} else {
+			assertEquals(expected.longValue(), Money.divideRounded(dividend, divisor, rounding), division);
+		}
+	}
+
+	@Test
+	void divideRoundedMatchesBigDecimalOnEdgeValues() {
+		for (RoundingMode rounding : RoundingMode.values()) {
+			for (long dividend : EDGE_VALUES) {
+				for (long divisor : EDGE_VALUES) {
+					if (divisor != 0) {
+						assertDividesLikeBigDecimal(dividend, divisor, rounding);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void divideRoundedMatchesBigDecimalOnRandomValues() {
+		Random random = new Random(42);
+		List<long[]> divisions = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++) {
+			long dividend = random.nextInt(4) == 0 ? random.nextLong() : random.nextInt(2_000_001) - 1_000_000;
+			long divisor = random.nextInt(4) == 0 ? random.nextLong() : random.nextInt(401) - 200;
+			if (divisor != 0) {
+				divisions.add(new long[]{dividend, divisor});
+			}
+		}
+		// Exact halves, where HALF_UP, HALF_DOWN and HALF_EVEN differ
+		for (long quotient = -6; quotient <= 6; quotient++) {
+			divisions.add(new long[]{quotient * 2 + 1, 2});
+			divisions.add(new long[]{quotient * 2 + 1, -2});
+			divisions.add(new long[]{quotient * 200 + 100, 200});
+		}
+		for (RoundingMode rounding : RoundingMode.values()) {
+			for (long[] division : divisions) {
+				assertDividesLikeBigDecimal(division[0], division[1], rounding);
+			}
+		}
+	}
+
+	@Test
+	void halfModesOnExactHalves() {
+		assertEquals(3, Money.divideRounded(5, 2, RoundingMode.HALF_UP));
+		assertEquals(2, Money.divideRounded(5, 2, RoundingMode.HALF_DOWN));
+		assertEquals(2, Money.divideRounded(5, 2, RoundingMode.HALF_EVEN));
+		assertEquals(4, Money.divideRounded(7, 2, RoundingMode.HALF_EVEN));
+		assertEquals(-3, Money.divideRounded(-5, 2, RoundingMode.HALF_UP));
+		assertEquals(-2, Money.divideRounded(-5, 2, RoundingMode.HALF_DOWN));
+		assertEquals(-2, Money.divideRounded(5, -2, RoundingMode.HALF_EVEN));
+	}
+
+	@Test
+	void unnecessaryRoundingThrowsOnlyWhenInexact() {
+		assertEquals(4, Money.divideRounded(12, 3, RoundingMode.UNNECESSARY));
+		assertThrows(ArithmeticException.class, () -> Money.divideRounded(10, 3, RoundingMode.UNNECESSARY));
+	}
+
+	@Test
+	void divisionByZeroThrows() {
+		assertThrows(ArithmeticException.class, () -> Money.divideRounded(1, 0, RoundingMode.HALF_UP));
+		assertThrows(ArithmeticException.class, () -> Money.divide(Money.ONE, 0, RoundingMode.HALF_UP));
+	}
+
+	@Test
+	void overflowThrowsInsteadOfWrapping() {
+		assertThrows(ArithmeticException.class, () -> Money.divideRounded(Long.MIN_VALUE, -1, RoundingMode.HALF_UP));
+		assertThrows(ArithmeticException.class, () -> Money.of(Long.MAX_VALUE / 10));
+		assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+		assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+		assertThrows(ArithmeticException.class, () -> Money.multiply(Long.MAX_VALUE / 2, Money.of(3), RoundingMode.HALF_UP));
+		assertThrows(ArithmeticException.class, () -> Money.divide(Long.MAX_VALUE / 10, Money.ONE, RoundingMode.HALF_UP));
+		assertThrows(ArithmeticException.class,
+				() -> Money.of(new BigDecimal("92233720368547758.08"), RoundingMode.HALF_UP));
+	}
+
+	@Test
+	void fixedPointOperations() {
+		assertEquals(3100, Money.of(31));
+		assertEquals(12345, Money.of(new BigDecimal("123.445"), RoundingMode.HALF_UP));
+		assertEquals(12344, Money.of(new BigDecimal("123.445"), RoundingMode.HALF_EVEN));
+		assertEquals(0, Money.of(null, RoundingMode.HALF_UP));
+		assertEquals(new BigDecimal("123.45"), Money.toBigDecimal(12345));
+		// 1000.00 * 0.13 = 130.00 exactly; 10.01 * 0.50 = 5.005
+		assertEquals(13000, Money.multiply(100000, 13, RoundingMode.HALF_UP));
+		assertEquals(501, Money.multiply(1001, 50, RoundingMode.HALF_UP));
+		assertEquals(500, Money.multiply(1001, 50, RoundingMode.HALF_EVEN));
+		// 1000.00 / 3 = 333.33 (HALF_UP), 333.34 (UP)
+		assertEquals(33333, Money.divide(100000, Money.of(3), RoundingMode.HALF_UP));
+		assertEquals(33334, Money.divide(100000, Money.of(3), RoundingMode.UP));
+		// An annual 1,00,000.00 over 12 months
+		assertEquals(833333, Money.divideByWhole(10000000, 12, RoundingMode.HALF_UP));
+	}
+}
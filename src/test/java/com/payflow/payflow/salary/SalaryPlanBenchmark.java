@@ -0,0 +1,139 @@
+package com.payflow.payflow.salary;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for the per-employee cost of salary evaluation in a bulk run, over 100k synthetic employees.
+ * Compares the BigDecimal calculation that payslip generation used before fixed-point money (a
+ * {@code BigDecimal} for every intermediate) against evaluating the compiled
+ * {@link SalaryRules#componentBased()} plan on {@link Money} longs, including the conversion of
+ * the CTC components from and the totals to {@code BigDecimal} at the persistence boundary.
+ * Results are reported per employee; the setup fails if the two ever disagree.
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.payflow.payflow.salary.SalaryPlanBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(1)
+@Fork(1)
+@OperationsPerInvocation(SalaryPlanBenchmark.EMPLOYEES)
+public class SalaryPlanBenchmark {
+
+    static final int EMPLOYEES = 100_000;
+
+    private SalaryPlan plan;
+    private int basicSlot;
+    private int hraSlot;
+    private int allowancesSlot;
+    private int bonusesSlot;
+    private int pfSlot;
+    private int gratuitySlot;
+    private int workingDaysSlot;
+    private int leavesUsedSlot;
+
+    private BigDecimal[][] components;
+    private int[] leavesUsed;
+    private final int workingDaysInMonth = 22;
+
+    @Setup
+    public void setUp() {
+        plan = SalaryRules.componentBased();
+        basicSlot = plan.slotIndex(SalaryRules.BASIC);
+        hraSlot = plan.slotIndex(SalaryRules.HRA);
+        allowancesSlot = plan.slotIndex(SalaryRules.ALLOWANCES);
+        bonusesSlot = plan.slotIndex(SalaryRules.BONUSES);
+        pfSlot = plan.slotIndex(SalaryRules.PF);
+        gratuitySlot = plan.slotIndex(SalaryRules.GRATUITY);
+        workingDaysSlot = plan.slotIndex(SalaryRules.WORKING_DAYS_IN_MONTH);
+        leavesUsedSlot = plan.slotIndex(SalaryRules.LEAVES_USED_THIS_YEAR);
+
+        Random random = new Random(42);
+        components = new BigDecimal[EMPLOYEES][];
+        leavesUsed = new int[EMPLOYEES];
+        for (int i = 0; i < EMPLOYEES; i++) {
+            BigDecimal basic = BigDecimal.valueOf(2_000_000 + random.nextInt(8_000_000), 2);
+            components[i] = new BigDecimal[]{
+                    basic,
+                    basic.multiply(BigDecimal.valueOf(4, 1)).setScale(2, RoundingMode.HALF_UP),
+                    BigDecimal.valueOf(random.nextInt(1_000_000), 2),
+                    BigDecimal.valueOf(random.nextInt(500_000), 2),
+                    basic.multiply(BigDecimal.valueOf(12, 2)).setScale(2, RoundingMode.HALF_UP),
+                    basic.multiply(BigDecimal.valueOf(481, 4)).setScale(2, RoundingMode.HALF_UP)
+            };
+            leavesUsed[i] = random.nextInt(20);
+        }
+
+        for (int i = 0; i < EMPLOYEES; i++) {
+            BigDecimal expected = bigDecimalNetPay(i);
+            BigDecimal actual = fixedPointNetPay(i);
+            if (expected.compareTo(actual) != 0) {
+                throw new IllegalStateException("Employee " + i + ": BigDecimal " + expected + " != fixed-point " + actual);
+            }
+        }
+    }
+
+    /**
+     * The previous implementation: BigDecimal arithmetic throughout.
+     */
+    @Benchmark
+    public void bigDecimal(Blackhole blackhole) {
+        for (int i = 0; i < EMPLOYEES; i++) {
+            blackhole.consume(bigDecimalNetPay(i));
+        }
+    }
+
+    /**
+     * The compiled component-based plan on fixed-point longs.
+     */
+    @Benchmark
+    public void fixedPointPlan(Blackhole blackhole) {
+        for (int i = 0; i < EMPLOYEES; i++) {
+            blackhole.consume(fixedPointNetPay(i));
+        }
+    }
+
+    private BigDecimal bigDecimalNetPay(int i) {
+        BigDecimal[] c = components[i];
+        BigDecimal gross = c[0].add(c[1]).add(c[2]).add(c[3]).add(c[4]);
+        BigDecimal leaveDeduction = BigDecimal.ZERO;
+        if (leavesUsed[i] > SalaryRules.ANNUAL_LEAVE_LIMIT) {
+            BigDecimal daily = gross.divide(BigDecimal.valueOf(workingDaysInMonth), 2, RoundingMode.HALF_UP);
+            leaveDeduction = daily.multiply(BigDecimal.valueOf(leavesUsed[i] - SalaryRules.ANNUAL_LEAVE_LIMIT));
+        }
+        return gross.subtract(c[4].add(c[5]).add(leaveDeduction));
+    }
+
+    private BigDecimal fixedPointNetPay(int i) {
+        BigDecimal[] c = components[i];
+        long[] inputs = plan.newInputs();
+        inputs[basicSlot] = Money.of(c[0], RoundingMode.HALF_UP);
+        inputs[hraSlot] = Money.of(c[1], RoundingMode.HALF_UP);
+        inputs[allowancesSlot] = Money.of(c[2], RoundingMode.HALF_UP);
+        inputs[bonusesSlot] = Money.of(c[3], RoundingMode.HALF_UP);
+        inputs[pfSlot] = Money.of(c[4], RoundingMode.HALF_UP);
+        inputs[gratuitySlot] = Money.of(c[5], RoundingMode.HALF_UP);
+        inputs[workingDaysSlot] = Money.of(workingDaysInMonth);
+        inputs[leavesUsedSlot] = Money.of(leavesUsed[i]);
+        return Money.toBigDecimal(plan.evaluate(inputs).getNetPay());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SalaryPlanBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}